@@ -0,0 +1,79 @@
+#!/bin/sh
+# HTTPS传输压测：TLS实现(JSSE/OpenSSL) x 协议(HTTP/1.1、HTTP/2)，每种组合分别压测小请求和大请求体上传
+# 依赖：h2load(nghttp2)、curl；OpenSSL组合需安装tomcat-native，未安装时服务回退到JSSE，该组合结果会标记为无效
+# 用法：sh bench.sh [jar路径]，在application.yaml所在目录执行，结果追加到bench-result.txt
+# 可通过环境变量调整：BENCH_PORT BENCH_REQUESTS BENCH_CLIENTS BENCH_STREAMS BENCH_BODY_MB
+export LANG="en_US.UTF-8"
+JAR=${1:-file_store_proxy-0.0.1-SNAPSHOT.jar}
+PORT=${BENCH_PORT:-18443}
+REQUESTS=${BENCH_REQUESTS:-20000}
+CLIENTS=${BENCH_CLIENTS:-50}
+STREAMS=${BENCH_STREAMS:-10}
+BODY_MB=${BENCH_BODY_MB:-8}
+URL=https://127.0.0.1:$PORT
+RESULT=bench-result.txt
+BODY=bench-body.bin
+BOUNDARY=bench-boundary
+
+for cmd in h2load curl java; do
+    if ! command -v $cmd >/dev/null 2>&1; then
+        echo "$cmd not found"
+        exit 1
+    fi
+done
+
+# multipart请求体，内容不是有效密文，上传接口会在解密阶段返回false，只衡量传输和解析开销
+{
+    printf -- "--%s\r\nContent-Disposition: form-data; name=\"file\"; filename=\"bench.bin\"\r\nContent-Type: application/octet-stream\r\n\r\n" $BOUNDARY
+    head -c $((BODY_MB * 1024 * 1024)) /dev/urandom
+    printf -- "\r\n--%s--\r\n" $BOUNDARY
+} > $BODY
+
+start() {
+    # 关闭预热和准入控制，避免HDFS和单客户端限流影响结果
+    java -Dspring.config.location=application.yaml -jar $JAR --server.port=$PORT --admin.port=0 \
+        --warmup.enabled=false --admission.enabled=false --trace.recording.enabled=false \
+        --transport.openssl=$1 > bench-openssl-$1.log 2>&1 &
+    PID=$!
+    for i in $(seq 1 60); do
+        if curl -k -s -o /dev/null $URL/proxy/publicKey; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "Application failed to start, see bench-openssl-$1.log"
+    kill $PID
+    exit 1
+}
+
+run() {
+    # $1 TLS实现 $2 协议 $3 h2load协议参数
+    echo "== $1 $2 GET /proxy/publicKey" | tee -a $RESULT
+    h2load $3 -n $REQUESTS -c $CLIENTS $URL/proxy/publicKey | grep -E "^(finished|requests|status codes|traffic|time for request|req/s)" | tee -a $RESULT
+    echo "== $1 $2 POST /proxy/upload ${BODY_MB}MB" | tee -a $RESULT
+    h2load $3 -n $((CLIENTS * 4)) -c $CLIENTS -d $BODY -H "content-type: multipart/form-data; boundary=$BOUNDARY" \
+        $URL/proxy/upload | grep -E "^(finished|requests|status codes|traffic|time for request|req/s)" | tee -a $RESULT
+}
+
+echo "#### $(date '+%Y-%m-%d %H:%M:%S') requests=$REQUESTS clients=$CLIENTS streams=$STREAMS body=${BODY_MB}MB" >> $RESULT
+for openssl in false true; do
+    start $openssl
+    # 以启动日志确认实际使用的TLS实现，与预期不符的组合标记为无效
+    if [ $openssl = true ]; then
+        impl=OpenSSL
+        if ! grep -q "TLS使用OpenSSL实现" bench-openssl-true.log; then
+            impl="OpenSSL(invalid: fell back to JSSE)"
+        fi
+    else
+        impl=JSSE
+        if ! grep -q "TLS使用JSSE实现" bench-openssl-false.log; then
+            impl="JSSE(invalid: implementation not confirmed)"
+        fi
+    fi
+    run "$impl" HTTP/1.1 "--h1"
+    run "$impl" HTTP/2 "-m $STREAMS"
+    kill $PID
+    wait $PID 2>/dev/null
+done
+rm -f $BODY
+echo "Results appended to $RESULT"
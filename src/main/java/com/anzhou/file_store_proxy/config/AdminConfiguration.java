@@ -0,0 +1,45 @@
+package com.anzhou.file_store_proxy.config;
+
+import com.anzhou.file_store_proxy.filter.AdminFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.connector.Connector;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ *@author pengpan
+ *@description 管理接口配置类：访问控制过滤器及单独的管理端口
+ *@date 10:30 2026/10/21
+ */
+@Configuration
+@Slf4j
+public class AdminConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<AdminFilter> adminFilterRegistration(AdminProperties adminProperties) {
+        FilterRegistrationBean<AdminFilter> registration = new FilterRegistrationBean<>(new AdminFilter(adminProperties));
+        registration.setUrlPatterns(adminProperties.getUrlPatterns());
+        // 在请求ID过滤器之后、准入控制之前
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> adminConnectorCustomizer(AdminProperties adminProperties) {
+        return factory -> {
+            if (adminProperties.getPort() <= 0) {
+                log.warn("未配置管理端口，管理接口在服务端口上通过令牌访问");
+                return;
+            }
+            Connector connector = new Connector(TomcatServletWebServerFactory.DEFAULT_PROTOCOL);
+            connector.setPort(adminProperties.getPort());
+            connector.setProperty("address", adminProperties.getAddress());
+            factory.addAdditionalTomcatConnectors(connector);
+            log.info("管理端口{}:{}", adminProperties.getAddress(), adminProperties.getPort());
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.anzhou.file_store_proxy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ *@author pengpan
+ *@description 管理接口（批量操作、诊断）的访问控制配置：只在单独的管理端口上提供，可选要求访问令牌
+ *@date 10:30 2026/10/21
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "admin")
+public class AdminProperties {
+
+    /**
+     * 管理端口（HTTP），管理接口只接受该端口上的请求；小于等于0时不单独开端口，此时必须配置token
+     */
+    private int port = 8082;
+
+    /**
+     * 管理端口监听的地址，默认只允许本机访问
+     */
+    private String address = "127.0.0.1";
+
+    /**
+     * 访问令牌，配置后请求需携带X-Admin-Token请求头
+     */
+    private String token;
+
+    /**
+     * 需要访问控制的管理接口
+     */
+    private List<String> urlPatterns = new ArrayList<>(Arrays.asList("/proxy/bulk/*", "/proxy/diagnostics/*"));
+}
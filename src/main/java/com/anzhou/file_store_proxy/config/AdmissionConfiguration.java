@@ -0,0 +1,32 @@
+package com.anzhou.file_store_proxy.config;
+
+import com.anzhou.file_store_proxy.filter.AdmissionFilter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ *@author pengpan
+ *@description 准入控制过滤器配置类
+ *@date 14:10 2026/10/19
+ */
+@Configuration
+public class AdmissionConfiguration {
+
+    @Bean
+    public AdmissionFilter getAdmissionFilter(AdmissionProperties admissionProperties) {
+        return new AdmissionFilter(admissionProperties);
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilterRegistration(AdmissionFilter admissionFilter,
+                                                                               AdmissionProperties admissionProperties) {
+        FilterRegistrationBean<AdmissionFilter> registration = new FilterRegistrationBean<>(admissionFilter);
+        registration.setEnabled(admissionProperties.isEnabled());
+        registration.setUrlPatterns(admissionProperties.getUrlPatterns());
+        // 尽早拒绝，避免后续过滤器和multipart解析先占用内存
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,80 @@
+package com.anzhou.file_store_proxy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ *@author pengpan
+ *@description 上传/读取接口的准入控制配置，按并发数和在途字节数限流
+ *@date 14:10 2026/10/19
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 需要准入控制的接口
+     */
+    private List<String> urlPatterns = new ArrayList<>(Arrays.asList("/proxy/upload", "/proxy/download"));
+
+    /**
+     * 全局最大并发请求数
+     */
+    private int maxConcurrent = 16;
+
+    /**
+     * 全局最大在途堆内存（字节），为空时取最大堆的一半；请求按Content-Length乘以heap-multiplier计入
+     */
+    private DataSize maxInflightBytes;
+
+    /**
+     * 上传在堆内的放大倍数：multipart分片读入byte数组、Base64解码、解密输出缓冲及toByteArray复制，
+     * 同一上传在堆上约占Content-Length的4倍
+     */
+    private int heapMultiplier = 4;
+
+    /**
+     * 单个客户端最大并发请求数
+     */
+    private int perClientMaxConcurrent = 4;
+
+    /**
+     * 单个客户端最大在途堆内存（字节），同样按Content-Length乘以heap-multiplier计入
+     */
+    private DataSize perClientMaxInflightBytes = DataSize.ofMegabytes(512);
+
+    /**
+     * 非multipart请求未携带Content-Length时按此大小计算，multipart请求缺少Content-Length直接拒绝
+     */
+    private DataSize unknownLengthBytes = DataSize.ofMegabytes(10);
+
+    /**
+     * 全局额度不足时在公平队列中的最长等待时间（毫秒）
+     */
+    private long queueTimeoutMs = 10000;
+
+    /**
+     * 最大排队请求数，超过直接返回503
+     */
+    private int maxQueueLength = 64;
+
+    /**
+     * 拒绝时返回的Retry-After（秒）
+     */
+    private int retryAfterSeconds = 5;
+
+    /**
+     * 识别客户端的请求头，默认为空，使用客户端IP；请求头可由客户端任意伪造，
+     * 只有部署在会覆盖该请求头的可信网关之后才可配置，比如：X-Client-Id
+     */
+    private String clientIdHeader;
+}
@@ -0,0 +1,56 @@
+package com.anzhou.file_store_proxy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ *@author pengpan
+ *@description 批量操作配置
+ *@date 10:30 2026/10/21
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "bulk")
+public class BulkProperties {
+
+    /**
+     * 批量操作线程池大小，所有批量任务共用
+     */
+    private int poolSize = 16;
+
+    /**
+     * 同时执行的批量任务数，其余任务排队
+     */
+    private int maxConcurrentJobs = 2;
+
+    /**
+     * 最多排队的批量任务数，超过时提交返回503
+     */
+    private int maxQueuedJobs = 16;
+
+    /**
+     * 内存中保留的已结束任务数，用于查询状态和结果
+     */
+    private int retainedJobs = 100;
+
+    /**
+     * 单个批量任务的最大并行数
+     */
+    private int parallelism = 8;
+
+    /**
+     * 每秒最多发起的HDFS操作数，避免压垮NameNode，0表示不限制
+     */
+    private int maxOpsPerSecond = 200;
+
+    /**
+     * 单个批量任务最多处理的条目数
+     */
+    private int maxItems = 100000;
+
+    /**
+     * 目录上传/下载及进度清单允许使用的本地根目录，请求中的本地路径均相对于该目录
+     */
+    private String localRoot = "bulk";
+}
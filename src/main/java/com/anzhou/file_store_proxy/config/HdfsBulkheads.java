@@ -0,0 +1,113 @@
+package com.anzhou.file_store_proxy.config;
+
+import com.anzhou.file_store_proxy.trace.RequestContext;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *@author pengpan
+ *@description HDFS调用隔离舱：元数据调用和数据读取使用各自的线程池，慢的NameNode调用不会占满数据传输的线程；
+ * 每次调用的超时时间取操作类型的默认超时和请求剩余时间中的较小值，超时后中断底层调用
+ *@date 14:20 2026/10/21
+ */
+public class HdfsBulkheads {
+
+    public enum Type {
+        /**
+         * NameNode元数据调用，比如：exists、mkdirs、delete
+         */
+        METADATA,
+        /**
+         * 数据读取
+         */
+        DATA
+    }
+
+    private final ThreadPoolExecutor metadataPool;
+    private final ThreadPoolExecutor dataPool;
+    private final long metadataTimeoutMs;
+    private final long dataTimeoutMs;
+
+    public HdfsBulkheads(String name, int metadataThreads, int dataThreads, int queueSize,
+                         long metadataTimeoutMs, long dataTimeoutMs) {
+        this.metadataPool = newPool(name + "-metadata", metadataThreads, queueSize);
+        this.dataPool = newPool(name + "-data", dataThreads, queueSize);
+        this.metadataTimeoutMs = metadataTimeoutMs;
+        this.dataTimeoutMs = dataTimeoutMs;
+    }
+
+    /**
+     * 在对应的隔离舱中执行HDFS调用
+     *
+     * @param type 操作类型
+     * @param call HDFS调用
+     * @return 调用结果
+     * @throws IOException 调用失败、超时或隔离舱已满
+     */
+    public <T> T call(Type type, Callable<T> call) throws IOException {
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(type == Type.METADATA ? metadataTimeoutMs : dataTimeoutMs);
+        long remaining = RequestContext.remainingNanos();
+        if (remaining < timeoutNanos) {
+            timeoutNanos = remaining;
+        }
+        if (timeoutNanos <= 0) {
+            throw new InterruptedIOException("请求已超过截止时间");
+        }
+        Future<T> future;
+        try {
+            future = (type == Type.METADATA ? metadataPool : dataPool).submit(call);
+        } catch (RejectedExecutionException e) {
+            throw new IOException(type + "隔离舱已满", e);
+        }
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // 中断底层调用，Hadoop IPC收到中断后会放弃等待
+            future.cancel(true);
+            InterruptedIOException timeout = new InterruptedIOException(type + "调用超时");
+            timeout.initCause(e);
+            throw timeout;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待HDFS调用被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    public void close() {
+        // 不中断执行中的调用，让其自然结束后再释放共享客户端
+        metadataPool.shutdown();
+        dataPool.shutdown();
+    }
+
+    private static ThreadPoolExecutor newPool(String name, int threads, int queueSize) {
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+            Thread thread = new Thread(r, name + "-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
@@ -7,6 +7,11 @@ import org.springframework.cloud.context.config.annotation.RefreshScope;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  *@author pengpan
  *@description HDFS文件系统配置类
@@ -17,18 +22,47 @@ import org.springframework.context.annotation.Configuration;
 @Slf4j
 public class HdfsConfiguration {
 
-    @Value("${hdfs_uri}")
+    @Value("${hdfs_uri:}")
     private String defaultDfs;
     @Value("${hadoop_user_name}")
     private String hadoopUserName;
 
     @Bean
-    public HdfsOperations getHdfsOperations() {
+    @RefreshScope
+    public HdfsRouter getHdfsRouter(HdfsProperties hdfsProperties) {
         System.setProperty("HADOOP_USER_NAME",hadoopUserName);
         log.info("HADOOP_USER_NAME:{}",hadoopUserName);
-        org.apache.hadoop.conf.Configuration conf = new org.apache.hadoop.conf.Configuration();
-        conf.set("fs.hdfs.impl", DistributedFileSystem.class.getName());
-        conf.set("fs.defaultFS", defaultDfs);
-        return new HdfsOperations(conf, defaultDfs);
+        Map<String, HdfsOperations> clusters = new LinkedHashMap<>();
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        List<HdfsProperties.Cluster> clusterList = new ArrayList<>(hdfsProperties.getClusters());
+        if (clusterList.isEmpty()) {
+            // 兼容单集群配置
+            HdfsProperties.Cluster cluster = new HdfsProperties.Cluster();
+            cluster.setName("default");
+            cluster.setUri(defaultDfs);
+            clusterList.add(cluster);
+        }
+        for (HdfsProperties.Cluster cluster : clusterList) {
+            org.apache.hadoop.conf.Configuration conf = new org.apache.hadoop.conf.Configuration();
+            conf.set("fs.hdfs.impl", DistributedFileSystem.class.getName());
+            conf.set("fs.defaultFS", cluster.getUri());
+            conf.setInt("dfs.client.hedged.read.threadpool.size", hdfsProperties.getHedgedReadThreads());
+            conf.setLong("dfs.client.hedged.read.threshold.millis", hdfsProperties.getHedgedReadThresholdMs());
+            cluster.getProperties().forEach(conf::set);
+            HdfsBulkheads bulkheads = new HdfsBulkheads("hdfs-" + cluster.getName(),
+                    hdfsProperties.getMetadataThreads(), hdfsProperties.getDataThreads(),
+                    hdfsProperties.getBulkheadQueueSize(), hdfsProperties.getMetadataTimeoutMs(),
+                    hdfsProperties.getDataTimeoutMs());
+            clusters.put(cluster.getName(), new HdfsOperations(conf, cluster.getUri(), bulkheads));
+            weights.put(cluster.getName(), cluster.getWeight());
+            log.info("HDFS集群[{}]:{}, weight:{}", cluster.getName(), cluster.getUri(), cluster.getWeight());
+        }
+        return new HdfsRouter(clusters, weights, hdfsProperties.getMounts(), hdfsProperties.getFailoverCooldownMs());
+    }
+
+    @Bean
+    @RefreshScope
+    public HdfsOperations getHdfsOperations(HdfsRouter hdfsRouter) {
+        return hdfsRouter.getDefault();
     }
 }
@@ -0,0 +1,69 @@
+package com.anzhou.file_store_proxy.config;
+
+import com.anzhou.file_store_proxy.trace.RequestContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *@author pengpan
+ *@description HDFS健康检查，缓存探测结果，避免编排系统的高频探测每次都访问NameNode。
+ * 探测失败的集群同时在路由中熔断，任一集群可用即为UP
+ *@date 09:40 2026/10/20
+ */
+@Component("hdfs")
+public class HdfsHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    HdfsRouter hdfsRouter;
+    @Value("${health.hdfs.cache-ttl-ms:10000}")
+    private long cacheTtlMs;
+
+    private volatile Health cached;
+    private volatile long cachedAt;
+
+    @Override
+    public Health health() {
+        Health health = cached;
+        if (health != null && System.currentTimeMillis() - cachedAt < cacheTtlMs) {
+            return health;
+        }
+        synchronized (this) {
+            // 并发探测只执行一次
+            if (cached != null && System.currentTimeMillis() - cachedAt < cacheTtlMs) {
+                return cached;
+            }
+            health = probe();
+            // 受请求截止时间影响的探测结果不缓存
+            if (!RequestContext.isExpired()) {
+                cached = health;
+                cachedAt = System.currentTimeMillis();
+            }
+            return health;
+        }
+    }
+
+    private Health probe() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        boolean anyUp = false;
+        for (Map.Entry<String, HdfsOperations> entry : hdfsRouter.getClusters().entrySet()) {
+            String name = entry.getKey();
+            if (entry.getValue().checkFileSystem()) {
+                hdfsRouter.markHealthy(name);
+                details.put(name, "UP");
+                anyUp = true;
+            } else if (RequestContext.isExpired()) {
+                details.put(name, "UNKNOWN");
+            } else {
+                hdfsRouter.markFailed(name);
+                details.put(name, "DOWN");
+            }
+        }
+        return (anyUp ? Health.up() : Health.down()).withDetails(details).build();
+    }
+}
@@ -1,21 +1,31 @@
 package com.anzhou.file_store_proxy.config;
 
 import com.alibaba.fastjson.JSON;
-import org.apache.commons.io.IOUtils;
+import com.anzhou.file_store_proxy.trace.RequestContext;
+import com.anzhou.file_store_proxy.trace.Span;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.*;
 import org.apache.hadoop.hdfs.DistributedFileSystem;
+import org.apache.hadoop.hdfs.protocol.QuotaExceededException;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.ipc.RemoteException;
+import org.apache.hadoop.security.AccessControlException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.Charset;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  *@author pengpan
@@ -27,20 +37,75 @@ public class HdfsOperations {
     private Logger logger = LoggerFactory.getLogger(HdfsOperations.class);
     private Configuration conf = null;
 
+    /**
+     * pread整文件读取时每次调用读取的字节数，数据读取超时按块计算
+     */
+    private static final int READ_CHUNK_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * 只与具体路径有关的错误，换集群可能成功，但不说明集群不可用
+     */
+    private static final Class<?>[] PATH_FAILURES = {
+            AccessControlException.class, QuotaExceededException.class, FileAlreadyExistsException.class, ParentNotDirectoryException.class};
+    private static final ThreadLocal<IOException> LAST_FAILURE = new ThreadLocal<>();
+    /**
+     * open超时后放入交接位置的标记，之后才打开的流由打开线程关闭
+     */
+    private static final Object ABANDONED = new Object();
+
     private String defaultHdfsUri;
+    /**
+     * 长期复用的文件系统客户端，按租约计数，close后等最后一个租约释放才真正关闭
+     */
+    private SharedClient sharedClient;
+    private boolean closed;
+    /**
+     * 元数据/数据读取调用的隔离舱，为null时直接在调用线程中执行且不设超时
+     */
+    private HdfsBulkheads bulkheads;
 
     public HdfsOperations(Configuration conf, String defaultHdfsUri) {
+        this(conf, defaultHdfsUri, null);
+    }
+
+    public HdfsOperations(Configuration conf, String defaultHdfsUri, HdfsBulkheads bulkheads) {
         this.conf = conf;
         this.defaultHdfsUri = defaultHdfsUri;
+        this.bulkheads = bulkheads;
+    }
+
+    public String getDefaultHdfsUri() {
+        return defaultHdfsUri;
     }
 
     /**
-     ** 获取HDFS文件系统
-     **
-     * @return org.apache.hadoop.fs.FileSystem
+     * 借用长期复用的HDFS文件系统，首次调用时创建；FileSystem线程安全，可供多个线程并发使用。
+     * 使用完毕后关闭租约，不要直接关闭FileSystem
+     *
+     * @return 文件系统租约
      */
-    private FileSystem getFileSystem() throws IOException {
-        return FileSystem.newInstance(conf);
+    public FileSystemLease leaseFileSystem() throws IOException {
+        SharedClient client;
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("HDFS客户端已关闭:" + defaultHdfsUri);
+            }
+            if (sharedClient == null) {
+                sharedClient = new SharedClient(FileSystem.newInstance(conf));
+            }
+            client = sharedClient;
+            client.leases++;
+        }
+        return new FileSystemLease(client);
+    }
+
+    /**
+     * 预先创建HDFS客户端并完成一次NameNode调用，避免首个请求承担初始化开销
+     *
+     * @return boolean 是否成功
+     */
+    public boolean warmUp() {
+        return checkFileSystem();
     }
 
     /**
@@ -56,18 +121,23 @@ public class HdfsOperations {
         if (checkExists(path)) {
             return true;
         } else {
-            FileSystem fileSystem = null;
+            Span span = Span.hdfs(defaultHdfsUri, "mkdir", path);
+            FileSystemLease lease = null;
             try {
-                fileSystem = getFileSystem();
+                lease = leaseFileSystem();
                 // 最终的HDFS文件目录
                 String hdfsPath = generateHdfsPath(path);
                 // 创建目录
-                return fileSystem.mkdirs(new Path(hdfsPath));
+                FileSystem fs = lease.get();
+                return call(HdfsBulkheads.Type.METADATA, () -> fs.mkdirs(new Path(hdfsPath)));
             } catch (IOException e) {
+                span.fail(e);
+                recordFailure(e);
                 logger.error(MessageFormat.format("创建HDFS目录失败，path:{0}", path), e);
                 return false;
             } finally {
-                close(fileSystem);
+                close(lease);
+                span.close();
             }
         }
     }
@@ -95,19 +165,23 @@ public class HdfsOperations {
      * @param dstPath   HDFS的相对目录路径，比如：/testDir
      */
     public void uploadFileToHdfs(boolean delSrc, boolean overwrite, String srcFile, String dstPath) {
-        FileSystem fileSystem = null;
+        Span span = Span.hdfs(defaultHdfsUri, "uploadFileToHdfs", dstPath);
+        FileSystemLease lease = null;
         try {
             // 源文件路径
             Path localSrcPath = new Path(srcFile);
             String fileName = localSrcPath.getName();
             // 目标文件路径
             Path hdfsDstPath = new Path(generateHdfsPath(dstPath));
-            fileSystem = getFileSystem();
+            lease = leaseFileSystem();
+            FileSystem fileSystem = lease.get();
             fileSystem.copyFromLocalFile(delSrc, overwrite, localSrcPath, hdfsDstPath);
         } catch (IOException e) {
+            span.fail(e);
             logger.error(MessageFormat.format("上传文件至HDFS失败，srcFile:{0},dstPath:{1}", srcFile, dstPath), e);
         } finally {
-            close(fileSystem);
+            close(lease);
+            span.close();
         }
     }
 
@@ -117,30 +191,56 @@ public class HdfsOperations {
      * @param in 输入流
      * @param dstPath 目标目录
      * @param filename 目标文件名 e.g.(1.txt)
+     * @return boolean 是否上传成功
      */
-    public void uploadFileToHdfsByFlow(boolean overwrite, InputStream in, String dstPath, String filename) {
-        FileSystem fileSystem = null;
+    public boolean uploadFileToHdfsByFlow(boolean overwrite, InputStream in, String dstPath, String filename) {
+        Span span = Span.hdfs(defaultHdfsUri, "uploadFileToHdfsByFlow", dstPath + "/" + filename);
+        FileSystemLease lease = null;
         FSDataOutputStream out = null;
+        Path created = null;
         try {
             // 目标文件路径
             Path hdfsDstPath = new Path(generateHdfsPath(dstPath + "/" + filename));
-            fileSystem = getFileSystem();
-            out = fileSystem.create(hdfsDstPath, overwrite);
+            lease = leaseFileSystem();
+            out = lease.get().create(hdfsDstPath, overwrite);
+            created = hdfsDstPath;
             byte[] buffer = new byte[1024 * 8];
             int read = 0;
+            long total = 0;
             while ((read = in.read(buffer)) != -1) {
                 out.write(buffer, 0, read);
                 out.flush();
+                total += read;
             }
+            out.close();
+            out = null;
+            span.bytes(total);
+            return true;
         } catch (IOException e) {
-            logger.error(MessageFormat.format("上传文件至HDFS失败,dstPath:{1}", dstPath), e);
+            span.fail(e);
+            recordFailure(e);
+            logger.error(MessageFormat.format("上传文件至HDFS失败,dstPath:{0}", dstPath), e);
+            if (created != null) {
+                // create已生成文件，不删除的话读取时可能定位到这个不完整的副本
+                try {
+                    out.close();
+                } catch (IOException closeError) {
+                    // ignore
+                }
+                out = null;
+                deletePartial(lease.get(), created);
+            }
+            return false;
         } finally {
             try {
-                close(fileSystem);
-                out.close();
+                if (out != null) {
+                    out.close();
+                }
             } catch (IOException e) {
                 e.printStackTrace();
             }
+            close(lease);
+            span.close();
         }
     }
 
@@ -153,18 +253,22 @@ public class HdfsOperations {
      * @return boolean
      */
     public boolean checkExists(String path) {
-        FileSystem fileSystem = null;
+        Span span = Span.hdfs(defaultHdfsUri, "checkExists", path);
+        FileSystemLease lease = null;
         try {
-            fileSystem = getFileSystem();
+            lease = leaseFileSystem();
             // 最终的HDFS文件目录
             String hdfsPath = generateHdfsPath(path);
             // 创建目录
-            return fileSystem.exists(new Path(hdfsPath));
+            FileSystem fs = lease.get();
+            return call(HdfsBulkheads.Type.METADATA, () -> fs.exists(new Path(hdfsPath)));
         } catch (IOException e) {
+            span.fail(e);
             logger.error(MessageFormat.format("'判断文件或者目录是否在HDFS上面存在'失败，path:{0}", path), e);
             return false;
         } finally {
-            close(fileSystem);
+            close(lease);
+            span.close();
         }
     }
 
@@ -177,9 +281,11 @@ public class HdfsOperations {
      */
     public List<String> listChilds(String parentPath, PathFilter pathFilter, boolean listDir) {
         List<String> fileRes = new ArrayList<String>();
-        FileSystem fileSystem = null;
+        Span span = Span.hdfs(defaultHdfsUri, "listChilds", parentPath);
+        FileSystemLease lease = null;
         try {
-            fileSystem = getFileSystem();
+            lease = leaseFileSystem();
+            FileSystem fileSystem = lease.get();
             String path = generateHdfsPath(parentPath);
             FileStatus[] statues = null;
             if (pathFilter == null) {
@@ -197,9 +303,11 @@ public class HdfsOperations {
                 }
             }
         } catch (Exception e) {
+            span.fail(e);
             e.printStackTrace();
         } finally {
-            close(fileSystem);
+            close(lease);
+            span.close();
         }
         return fileRes;
     }
@@ -218,9 +326,11 @@ public class HdfsOperations {
 
         // 如果目录已经存在，则继续操作
         if (checkExists(path)) {
-            FileSystem fileSystem = null;
+            Span span = Span.hdfs(defaultHdfsUri, "listFiles", path);
+            FileSystemLease lease = null;
             try {
-                fileSystem = getFileSystem();
+                lease = leaseFileSystem();
+                FileSystem fileSystem = lease.get();
                 // 最终的HDFS文件目录
                 String hdfsPath = generateHdfsPath(path);
                 FileStatus[] statuses;
@@ -240,9 +350,11 @@ public class HdfsOperations {
                     }
                 }
             } catch (IOException e) {
+                span.fail(e);
                 logger.error(MessageFormat.format("获取HDFS上面的某个路径下面的所有文件失败，path:{0}", path), e);
             } finally {
-                close(fileSystem);
+                close(lease);
+                span.close();
             }
         }
 
@@ -262,15 +374,19 @@ public class HdfsOperations {
         Path hdfsSrcPath = new Path(generateHdfsPath(srcFile));
         // 下载之后本地文件路径
         Path localDstPath = new Path(dstFile);
-        FileSystem fileSystem = null;
+        Span span = Span.hdfs(defaultHdfsUri, "downloadFileFromHdfs", srcFile);
+        FileSystemLease lease = null;
         try {
-            fileSystem = getFileSystem();
+            lease = leaseFileSystem();
+            FileSystem fileSystem = lease.get();
             this.delete(localDstPath.toString());
             fileSystem.copyToLocalFile(false, hdfsSrcPath, localDstPath, true);
         } catch (IOException e) {
+            span.fail(e);
             logger.error(MessageFormat.format("从HDFS下载文件至本地失败，srcFile:{0},dstFile:{1}", srcFile, dstFile), e);
         } finally {
-            close(fileSystem);
+            close(lease);
+            span.close();
         }
     }
 
@@ -285,12 +401,40 @@ public class HdfsOperations {
     public FSDataInputStream open(String path) {
         // HDFS文件路径
         Path hdfsPath = new Path(generateHdfsPath(path));
-        FileSystem fileSystem = null;
+        Span span = Span.hdfs(defaultHdfsUri, "open", path);
+        FileSystemLease lease = null;
         try {
-            fileSystem = getFileSystem();
-            return fileSystem.open(hdfsPath);
+            lease = leaseFileSystem();
+            FileSystem fileSystem = lease.get();
+            AtomicReference<Object> handoff = new AtomicReference<>();
+            FSDataInputStream in;
+            try {
+                in = call(HdfsBulkheads.Type.DATA, () -> {
+                    FSDataInputStream opened = fileSystem.open(hdfsPath);
+                    // 调用方已超时放弃时没有人会关闭这个流
+                    if (!handoff.compareAndSet(null, opened)) {
+                        opened.close();
+                    }
+                    return opened;
+                });
+            } catch (IOException e) {
+                // 超时时流可能刚好打开，由这里关闭；之后才打开的由打开线程关闭
+                Object opened = handoff.getAndSet(ABANDONED);
+                if (opened instanceof Closeable) {
+                    IOUtils.closeStream((Closeable) opened);
+                }
+                throw e;
+            }
+            // 返回的流在方法外继续使用，流关闭时才释放租约
+            FileSystemLease streamLease = lease;
+            lease = null;
+            return new FSDataInputStream(new DeadlineInputStream(in, streamLease, RequestContext.remainingNanos()));
         } catch (IOException e) {
+            span.fail(e);
             logger.error(MessageFormat.format("打开HDFS上面的文件失败，path:{0}", path), e);
+        } finally {
+            close(lease);
+            span.close();
         }
 
         return null;
@@ -314,13 +458,32 @@ public class HdfsOperations {
     public byte[] openWithBytes(String path) {
         // HDFS文件路径
         Path hdfsPath = new Path(generateHdfsPath(path));
-        FileSystem fileSystem = null;
+        Span span = Span.hdfs(defaultHdfsUri, "openWithBytes", path);
+        FileSystemLease lease = null;
         FSDataInputStream inputStream = null;
         try {
-            fileSystem = getFileSystem();
-            inputStream = fileSystem.open(hdfsPath);
-            return IOUtils.toByteArray(inputStream);
+            lease = leaseFileSystem();
+            FileSystem fs = lease.get();
+            inputStream = call(HdfsBulkheads.Type.DATA, () -> fs.open(hdfsPath));
+            FSDataInputStream in = inputStream;
+            long length = call(HdfsBulkheads.Type.METADATA, () -> fs.getFileStatus(hdfsPath).getLen());
+            if (length > Integer.MAX_VALUE - 8) {
+                throw new IOException("文件过大，无法读取为byte数组:" + length);
+            }
+            byte[] data = new byte[(int) length];
+            // 按块使用pread读取，超时按块计算；DFS客户端开启hedged read后可绕开慢DataNode
+            for (int offset = 0; offset < data.length; offset += READ_CHUNK_BYTES) {
+                int position = offset;
+                int chunk = Math.min(READ_CHUNK_BYTES, data.length - offset);
+                call(HdfsBulkheads.Type.DATA, () -> {
+                    in.readFully(position, data, position, chunk);
+                    return null;
+                });
+            }
+            span.bytes(data.length);
+            return data;
         } catch (IOException e) {
+            span.fail(e);
             logger.error(MessageFormat.format("打开HDFS上面的文件失败，path:{0}", path), e);
         } finally {
             if (inputStream != null) {
@@ -330,6 +493,8 @@ public class HdfsOperations {
                     // ignore
                 }
             }
+            close(lease);
+            span.close();
         }
 
         return null;
@@ -344,27 +509,8 @@ public class HdfsOperations {
      * @return FSDataInputStream
      */
     public String openWithString(String path) {
-        // HDFS文件路径
-        Path hdfsPath = new Path(generateHdfsPath(path));
-        FileSystem fileSystem = null;
-        FSDataInputStream inputStream = null;
-        try {
-            fileSystem = getFileSystem();
-            inputStream = fileSystem.open(hdfsPath);
-            return IOUtils.toString(inputStream, Charset.forName("UTF-8"));
-        } catch (IOException e) {
-            logger.error(MessageFormat.format("打开HDFS上面的文件失败，path:{0}", path), e);
-        } finally {
-            if (inputStream != null) {
-                try {
-                    inputStream.close();
-                } catch (IOException e) {
-                    // ignore
-                }
-            }
-        }
-
-        return null;
+        byte[] bytes = openWithBytes(path);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
     }
 
     /**
@@ -397,16 +543,18 @@ public class HdfsOperations {
         // 下载之后本地文件路径
         Path dstFilePath = new Path(dstFile);
 
-        FileSystem fileSystem = null;
+        Span span = Span.hdfs(defaultHdfsUri, "rename", srcFile);
+        FileSystemLease lease = null;
         try {
-
-            fileSystem = getFileSystem();
-
-            return fileSystem.rename(srcFilePath, dstFilePath);
+            lease = leaseFileSystem();
+            FileSystem fs = lease.get();
+            return call(HdfsBulkheads.Type.METADATA, () -> fs.rename(srcFilePath, dstFilePath));
         } catch (IOException e) {
+            span.fail(e);
             logger.error(MessageFormat.format("重命名失败，srcFile:{0},dstFile:{1}", srcFile, dstFile), e);
         } finally {
-            close(fileSystem);
+            close(lease);
+            span.close();
         }
 
         return false;
@@ -424,15 +572,18 @@ public class HdfsOperations {
         // HDFS文件路径
         Path hdfsPath = new Path(generateHdfsPath(path));
 
-        FileSystem fileSystem = null;
+        Span span = Span.hdfs(defaultHdfsUri, "delete", path);
+        FileSystemLease lease = null;
         try {
-            fileSystem = getFileSystem();
-
-            return fileSystem.delete(hdfsPath, true);
+            lease = leaseFileSystem();
+            FileSystem fs = lease.get();
+            return call(HdfsBulkheads.Type.METADATA, () -> fs.delete(hdfsPath, true));
         } catch (IOException e) {
+            span.fail(e);
             logger.error(MessageFormat.format("删除HDFS文件或目录失败，path:{0}", path), e);
         } finally {
-            close(fileSystem);
+            close(lease);
+            span.close();
         }
 
         return false;
@@ -451,18 +602,22 @@ public class HdfsOperations {
         // HDFS文件路径
         Path hdfsPath = new Path(generateHdfsPath(path));
 
-        FileSystem fileSystem = null;
+        Span span = Span.hdfs(defaultHdfsUri, "createPath", path);
+        FileSystemLease lease = null;
         try {
-            fileSystem = getFileSystem();
+            lease = leaseFileSystem();
+            FileSystem fileSystem = lease.get();
             if(fileSystem.exists(hdfsPath)){
                 logger.debug("path:{} is exists",path);
                 return;
             }
             fileSystem.mkdirs(hdfsPath);
         } catch (IOException e) {
+            span.fail(e);
             logger.error(MessageFormat.format("创建HDFS文件或目录失败，path:{0}", path), e);
         } finally {
-            close(fileSystem);
+            close(lease);
+            span.close();
         }
     }
 
@@ -478,16 +633,20 @@ public class HdfsOperations {
         // HDFS文件路径
         Path hdfsPath = new Path(generateHdfsPath(path));
 
-        FileSystem fileSystem = null;
+        Span span = Span.hdfs(defaultHdfsUri, "getFileBlockLocations", path);
+        FileSystemLease lease = null;
         try {
-            fileSystem = getFileSystem();
-            FileStatus fileStatus = fileSystem.getFileStatus(hdfsPath);
+            lease = leaseFileSystem();
+            FileSystem fs = lease.get();
+            FileStatus fileStatus = call(HdfsBulkheads.Type.METADATA, () -> fs.getFileStatus(hdfsPath));
 
-            return fileSystem.getFileBlockLocations(fileStatus, 0, fileStatus.getLen());
+            return call(HdfsBulkheads.Type.METADATA, () -> fs.getFileBlockLocations(fileStatus, 0, fileStatus.getLen()));
         } catch (IOException e) {
+            span.fail(e);
             logger.error(MessageFormat.format("获取某个文件在HDFS集群的位置失败，path:{0}", path), e);
         } finally {
-            close(fileSystem);
+            close(lease);
+            span.close();
         }
 
         return null;
@@ -501,7 +660,7 @@ public class HdfsOperations {
      * @param dstPath 相对路径，比如：/data
      * @return java.lang.String
      */
-    private String generateHdfsPath(String dstPath) {
+    public String generateHdfsPath(String dstPath) {
         String hdfsPath = defaultHdfsUri;
         if (dstPath.startsWith("hdfs")) {
             return dstPath;
@@ -520,16 +679,112 @@ public class HdfsOperations {
      * @return
      */
     public  boolean checkFileSystem() {
-        FileSystem fs = null;
-        try {
-            fs = getFileSystem();
-            fs.getStatus();
+        Span span = Span.hdfs(defaultHdfsUri, "checkFileSystem", null);
+        // 探测失败不关闭共享客户端：DFSClient在NameNode恢复后会自动重连，关闭会中断正在使用它的下载和批量任务
+        try (FileSystemLease lease = leaseFileSystem()) {
+            call(HdfsBulkheads.Type.METADATA, lease.get()::getStatus);
             return true;
         } catch (Exception e) {
+            span.fail(e);
             logger.error("无法连接HDFS");
             return false;
         } finally {
-            close(fs);
+            span.close();
+        }
+    }
+
+    /**
+     * 关闭长期复用的HDFS文件系统及隔离舱线程池；仍有未释放的租约（比如进行中的下载）时，等最后一个租约释放后再关闭
+     */
+    public void close() {
+        SharedClient client;
+        boolean closeNow;
+        synchronized (this) {
+            closed = true;
+            client = sharedClient;
+            sharedClient = null;
+            closeNow = client != null && client.leases == 0;
+        }
+        if (closeNow) {
+            close(client.fileSystem);
+        }
+        if (bulkheads != null) {
+            bulkheads.close();
+        }
+    }
+
+    /**
+     * 在隔离舱中执行HDFS调用，超过操作默认超时或请求截止时间时中断调用并抛出InterruptedIOException
+     */
+    private <T> T call(HdfsBulkheads.Type type, Callable<T> call) throws IOException {
+        if (bulkheads == null) {
+            try {
+                return call.call();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+        return bulkheads.call(type, call);
+    }
+
+    private void release(SharedClient client) {
+        boolean closeNow;
+        synchronized (this) {
+            client.leases--;
+            closeNow = client.leases == 0 && client != sharedClient;
+        }
+        if (closeNow) {
+            close(client.fileSystem);
+        }
+    }
+
+    /**
+     * 尽力删除写入失败留下的文件，不经过隔离舱，请求超过截止时间后也会执行
+     */
+    private void deletePartial(FileSystem fileSystem, Path path) {
+        try {
+            fileSystem.delete(path, false);
+            logger.info("已删除写入失败的文件:{}", path);
+        } catch (IOException e) {
+            logger.warn("删除写入失败的文件失败:{}, error:{}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * 清除当前线程记录的写入失败原因，HdfsRouter在每次写入前调用
+     */
+    static void clearLastFailure() {
+        LAST_FAILURE.remove();
+    }
+
+    /**
+     * 记录当前线程最近一次写入失败的原因，供HdfsRouter区分路径级错误和集群故障
+     */
+    static void recordFailure(IOException e) {
+        LAST_FAILURE.set(e);
+    }
+
+    /**
+     * 当前线程最近一次写入失败是否只与路径有关（权限、配额、文件已存在等），与集群是否可用无关
+     */
+    static boolean isPathFailure() {
+        Throwable e = LAST_FAILURE.get();
+        if (e instanceof RemoteException) {
+            e = ((RemoteException) e).unwrapRemoteException();
+        }
+        for (Class<?> type : PATH_FAILURES) {
+            if (type.isInstance(e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void close(FileSystemLease lease) {
+        if (lease != null) {
+            lease.close();
         }
     }
 
@@ -548,6 +803,123 @@ public class HdfsOperations {
 
 
 
+    /**
+     * 共享客户端及其未释放的租约数，租约数只在持有HdfsOperations锁时修改
+     */
+    private static final class SharedClient {
+        private final FileSystem fileSystem;
+        private int leases;
+
+        private SharedClient(FileSystem fileSystem) {
+            this.fileSystem = fileSystem;
+        }
+    }
+
+    /**
+     * 共享文件系统的租约，关闭租约只释放引用，不会关闭文件系统
+     */
+    public final class FileSystemLease implements Closeable {
+        private final SharedClient client;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private FileSystemLease(SharedClient client) {
+            this.client = client;
+        }
+
+        public FileSystem get() {
+            return client.fileSystem;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(client);
+            }
+        }
+    }
+
+    /**
+     * open返回的流：流式读取不经过隔离舱，每次读取前检查打开时所在请求的截止时间，关闭时释放租约
+     */
+    private static final class DeadlineInputStream extends FSInputStream {
+        private final FSDataInputStream in;
+        private final FileSystemLease lease;
+        private final boolean hasDeadline;
+        private final long deadlineNanos;
+
+        private DeadlineInputStream(FSDataInputStream in, FileSystemLease lease, long remainingNanos) {
+            this.in = in;
+            this.lease = lease;
+            this.hasDeadline = remainingNanos != Long.MAX_VALUE;
+            this.deadlineNanos = System.nanoTime() + remainingNanos;
+        }
+
+        private void checkDeadline() throws IOException {
+            if (hasDeadline && System.nanoTime() - deadlineNanos >= 0) {
+                throw new InterruptedIOException("读取超过请求截止时间");
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkDeadline();
+            return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkDeadline();
+            return in.read(b, off, len);
+        }
+
+        @Override
+        public int read(long position, byte[] buffer, int offset, int length) throws IOException {
+            checkDeadline();
+            return in.read(position, buffer, offset, length);
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer, int offset, int length) throws IOException {
+            checkDeadline();
+            in.readFully(position, buffer, offset, length);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            checkDeadline();
+            return in.skip(n);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return in.available();
+        }
+
+        @Override
+        public void seek(long pos) throws IOException {
+            in.seek(pos);
+        }
+
+        @Override
+        public long getPos() throws IOException {
+            return in.getPos();
+        }
+
+        @Override
+        public boolean seekToNewSource(long targetPos) throws IOException {
+            return in.seekToNewSource(targetPos);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                in.close();
+            } finally {
+                lease.close();
+            }
+        }
+    }
+
     public static void main(String[] args){
         String defaultDfs = "hdfs://192.168.111.134:9020";
         Configuration conf = new Configuration();
@@ -0,0 +1,103 @@
+package com.anzhou.file_store_proxy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *@author pengpan
+ *@description 多HDFS集群配置，未配置clusters时退化为单个hdfs_uri
+ *@date 10:20 2026/10/19
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hdfs")
+public class HdfsProperties {
+
+    /**
+     * 集群列表，第一个为默认集群
+     */
+    private List<Cluster> clusters = new ArrayList<>();
+
+    /**
+     * 路径/租户挂载表，按最长前缀匹配
+     */
+    private List<Mount> mounts = new ArrayList<>();
+
+    /**
+     * 集群写入失败后的熔断时间（毫秒），到期后重新尝试
+     */
+    private long failoverCooldownMs = 30000;
+
+    /**
+     * 元数据调用（exists、mkdirs等）的默认超时时间（毫秒）
+     */
+    private long metadataTimeoutMs = 5000;
+
+    /**
+     * 数据读取调用的默认超时时间（毫秒）
+     */
+    private long dataTimeoutMs = 30000;
+
+    /**
+     * 每个集群元数据调用隔离舱的线程数
+     */
+    private int metadataThreads = 16;
+
+    /**
+     * 每个集群数据读取隔离舱的线程数
+     */
+    private int dataThreads = 32;
+
+    /**
+     * 隔离舱排队长度，超过后直接失败
+     */
+    private int bulkheadQueueSize = 64;
+
+    /**
+     * DFS客户端hedged read线程池大小，0表示关闭；开启后慢DataNode上的pread会向其他副本发起推测读
+     */
+    private int hedgedReadThreads = 8;
+
+    /**
+     * 发起hedged read前等待首个DataNode的时间（毫秒）
+     */
+    private long hedgedReadThresholdMs = 500;
+
+    @Data
+    public static class Cluster {
+        /**
+         * 集群名称，比如：ns1
+         */
+        private String name;
+        /**
+         * 集群地址，HA集群填写nameservice，比如：hdfs://ns1
+         */
+        private String uri;
+        /**
+         * 新上传文件分摊权重，0表示不参与分摊
+         */
+        private int weight = 1;
+        /**
+         * 额外的Hadoop配置，比如HA相关的dfs.nameservices、dfs.ha.namenodes.ns1等
+         */
+        private Map<String, String> properties = new HashMap<>();
+    }
+
+    @Data
+    public static class Mount {
+        /**
+         * 路径前缀，比如：/test/tenantA
+         */
+        private String prefix;
+        /**
+         * 目标集群，第一个为主集群，其余为写入故障时的备选集群
+         */
+        private List<String> clusters = new ArrayList<>();
+    }
+}
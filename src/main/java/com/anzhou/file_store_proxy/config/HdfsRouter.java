@@ -0,0 +1,229 @@
+package com.anzhou.file_store_proxy.config;
+
+import com.anzhou.file_store_proxy.trace.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ *@author pengpan
+ *@description 多HDFS集群路由：挂载表匹配、按权重一致性哈希分摊新上传、写入失败时切换集群
+ *@date 10:20 2026/10/19
+ */
+public class HdfsRouter {
+
+    private Logger logger = LoggerFactory.getLogger(HdfsRouter.class);
+
+    private final Map<String, HdfsOperations> clusters;
+    private final Map<String, Integer> weights;
+    private final List<HdfsProperties.Mount> mounts;
+    private final String defaultCluster;
+    private final long failoverCooldownMs;
+    /**
+     * 集群名称 -> 熔断截止时间
+     */
+    private final Map<String, Long> downUntil = new ConcurrentHashMap<>();
+
+    public HdfsRouter(Map<String, HdfsOperations> clusters, Map<String, Integer> weights,
+                      List<HdfsProperties.Mount> mounts, long failoverCooldownMs) {
+        if (clusters.isEmpty()) {
+            throw new IllegalArgumentException("至少需要配置一个HDFS集群");
+        }
+        this.clusters = new LinkedHashMap<>(clusters);
+        this.weights = new LinkedHashMap<>(weights);
+        this.defaultCluster = clusters.keySet().iterator().next();
+        this.failoverCooldownMs = failoverCooldownMs;
+        this.mounts = new ArrayList<>(mounts);
+        for (HdfsProperties.Mount mount : this.mounts) {
+            if (mount.getPrefix() == null || mount.getPrefix().isEmpty()) {
+                throw new IllegalArgumentException("挂载点前缀不能为空");
+            }
+            if (mount.getClusters() == null || mount.getClusters().isEmpty()) {
+                throw new IllegalArgumentException("挂载点" + mount.getPrefix() + "未配置集群");
+            }
+            for (String name : mount.getClusters()) {
+                if (!this.clusters.containsKey(name)) {
+                    throw new IllegalArgumentException("挂载点" + mount.getPrefix() + "引用了不存在的集群:" + name);
+                }
+            }
+        }
+        // 最长前缀优先
+        this.mounts.sort(Comparator.comparingInt((HdfsProperties.Mount m) -> m.getPrefix().length()).reversed());
+    }
+
+    /**
+     * 默认集群
+     */
+    public HdfsOperations getDefault() {
+        return clusters.get(defaultCluster);
+    }
+
+    public HdfsOperations get(String name) {
+        return clusters.get(name);
+    }
+
+    public Map<String, HdfsOperations> getClusters() {
+        return clusters;
+    }
+
+    /**
+     * 按优先级排列path可落入的集群：命中挂载点时为挂载点的集群列表，否则为参与分摊的集群按权重一致性哈希排序，
+     * 权重为0（已下线分摊）的集群排在最后，只在其他集群均写入失败时兜底
+     *
+     * @param path HDFS的相对路径，比如：/test/2109/20260101/a.txt
+     * @return 集群名称列表
+     */
+    public List<String> candidates(String path) {
+        for (HdfsProperties.Mount mount : mounts) {
+            if (matches(mount.getPrefix(), path)) {
+                return new ArrayList<>(mount.getClusters());
+            }
+        }
+        List<String> names = new ArrayList<>();
+        List<String> drained = new ArrayList<>();
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            if (entry.getValue() > 0) {
+                names.add(entry.getKey());
+                scores.put(entry.getKey(), score(entry.getKey(), path, entry.getValue()));
+            } else {
+                drained.add(entry.getKey());
+            }
+        }
+        names.sort((a, b) -> Double.compare(scores.get(b), scores.get(a)));
+        names.addAll(drained);
+        if (names.isEmpty()) {
+            names.add(defaultCluster);
+        }
+        return names;
+    }
+
+    /**
+     * 读取时定位path所在集群：先按candidates顺序查找，再查找其余集群（文件可能写于挂载表或权重调整之前），
+     * 熔断中的集群最后查找；均不存在时返回首选集群
+     */
+    public HdfsOperations locate(String path) {
+        List<String> names = candidates(path);
+        for (String name : clusters.keySet()) {
+            if (!names.contains(name)) {
+                names.add(name);
+            }
+        }
+        List<String> down = new ArrayList<>();
+        for (String name : names) {
+            if (!isHealthy(name)) {
+                down.add(name);
+            } else if (clusters.get(name).checkExists(path)) {
+                return clusters.get(name);
+            }
+        }
+        for (String name : down) {
+            if (clusters.get(name).checkExists(path)) {
+                return clusters.get(name);
+            }
+        }
+        return clusters.get(names.get(0));
+    }
+
+    /**
+     * 在path对应的集群上执行写操作，失败时熔断该集群并切换到下一个候选集群；
+     * 权限、配额等路径级错误只切换不熔断，写入失败留下的文件由HdfsOperations在切换前删除
+     *
+     * @param path   HDFS的相对路径
+     * @param action 写操作，返回是否成功
+     * @return 写入成功的集群名称，全部失败时返回null
+     */
+    public String write(String path, Predicate<HdfsOperations> action) {
+        List<String> names = candidates(path);
+        List<String> ordered = new ArrayList<>();
+        // 健康集群优先，熔断中的集群仅在没有其他选择时兜底
+        for (String name : names) {
+            if (isHealthy(name)) {
+                ordered.add(name);
+            }
+        }
+        for (String name : names) {
+            if (!ordered.contains(name)) {
+                ordered.add(name);
+            }
+        }
+        try {
+            for (String name : ordered) {
+                HdfsOperations.clearLastFailure();
+                if (action.test(clusters.get(name))) {
+                    markHealthy(name);
+                    return name;
+                }
+                // 请求已超过截止时间导致的失败不是集群故障，不熔断也不再切换
+                if (RequestContext.isExpired()) {
+                    logger.warn("写入{}超过请求截止时间，放弃切换集群", path);
+                    return null;
+                }
+                // 权限、配额等路径级错误只切换集群，不熔断
+                if (HdfsOperations.isPathFailure()) {
+                    logger.warn("写入{}在集群[{}]上失败（路径级错误），尝试下一个集群", path, name);
+                    continue;
+                }
+                markFailed(name);
+            }
+            return null;
+        } finally {
+            HdfsOperations.clearLastFailure();
+        }
+    }
+
+    /**
+     * 关闭各集群的HDFS客户端
+     */
+    public void close() {
+        clusters.values().forEach(HdfsOperations::close);
+    }
+
+    public boolean isHealthy(String name) {
+        Long until = downUntil.get(name);
+        return until == null || until <= System.currentTimeMillis();
+    }
+
+    public void markFailed(String name) {
+        logger.warn("HDFS集群[{}]不可用，熔断{}ms", name, failoverCooldownMs);
+        downUntil.put(name, System.currentTimeMillis() + failoverCooldownMs);
+    }
+
+    public void markHealthy(String name) {
+        if (downUntil.remove(name) != null) {
+            logger.info("HDFS集群[{}]恢复", name);
+        }
+    }
+
+    private static boolean matches(String prefix, String path) {
+        if (!path.startsWith(prefix)) {
+            return false;
+        }
+        return prefix.endsWith("/") || path.length() == prefix.length() || path.charAt(prefix.length()) == '/';
+    }
+
+    /**
+     * 加权rendezvous哈希，集群增减时只有该集群上的路径会迁移
+     */
+    private static double score(String cluster, String path, int weight) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : (cluster + '|' + path).getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        // 映射到(0,1)
+        double u = ((h >>> 11) + 0.5) / (double) (1L << 53);
+        return -weight / Math.log(u);
+    }
+}
@@ -0,0 +1,41 @@
+package com.anzhou.file_store_proxy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ *@author pengpan
+ *@description RSA密钥库配置，多实例共享同一个密钥库文件即可使用相同的密钥
+ *@date 16:30 2026/10/19
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "key-store")
+public class KeyStoreProperties {
+
+    /**
+     * 密钥库文件路径，本地路径或者以hdfs开头的HDFS路径（使用默认集群），比如：keys/rsa-keys.json、hdfs:///proxy/keys/rsa-keys.json
+     */
+    private String path = "keys/rsa-keys.json";
+
+    /**
+     * 新生成密钥的长度
+     */
+    private int keySize = 2048;
+
+    /**
+     * 密钥轮换周期（小时），0表示不轮换
+     */
+    private long rotationHours = 168;
+
+    /**
+     * 轮换后旧密钥继续可用于解密的时长（小时）
+     */
+    private long overlapHours = 24;
+
+    /**
+     * 重新加载密钥库的间隔（秒），用于获取其他实例轮换出的新密钥
+     */
+    private long reloadSeconds = 60;
+}
@@ -0,0 +1,51 @@
+package com.anzhou.file_store_proxy.config;
+
+import com.anzhou.file_store_proxy.trace.FlightRecording;
+import com.anzhou.file_store_proxy.trace.SpanExporter;
+import com.anzhou.file_store_proxy.trace.TraceFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ *@author pengpan
+ *@description 请求追踪配置类：请求ID过滤器、JFR录制和span导出
+ *@date 15:00 2026/10/20
+ */
+@Configuration
+public class TraceConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<TraceFilter> traceFilterRegistration() {
+        FilterRegistrationBean<TraceFilter> registration = new FilterRegistrationBean<>(new TraceFilter());
+        registration.addUrlPatterns("/*");
+        // 先于准入控制，被拒绝的请求也带有请求ID
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "trace.export", name = "enabled", havingValue = "true")
+    public SpanExporter getSpanExporter(TraceProperties traceProperties) {
+        TraceProperties.Export export = traceProperties.getExport();
+        return new SpanExporter(export.getPath(), export.getQueueSize());
+    }
+
+    /**
+     * JFR录制单独配置，JVM不支持JFR（JDK 8u262之前）时不加载FlightRecording
+     */
+    @Configuration
+    @ConditionalOnClass(name = "jdk.jfr.FlightRecorder")
+    @ConditionalOnProperty(prefix = "trace.recording", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class FlightRecordingConfiguration {
+
+        @Bean(initMethod = "start", destroyMethod = "close")
+        public FlightRecording getFlightRecording(TraceProperties traceProperties) {
+            TraceProperties.Recording recording = traceProperties.getRecording();
+            return new FlightRecording(recording.getMaxAge(), recording.getMaxSize().toBytes(), recording.getThreshold());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.anzhou.file_store_proxy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ *@author pengpan
+ *@description JFR事件录制及span导出配置
+ *@date 15:00 2026/10/20
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "trace")
+public class TraceProperties {
+
+    private Recording recording = new Recording();
+
+    private Export export = new Export();
+
+    @Data
+    public static class Recording {
+        /**
+         * 是否启动常驻的JFR环形录制
+         */
+        private boolean enabled = true;
+        /**
+         * 录制数据保留时长
+         */
+        private Duration maxAge = Duration.ofMinutes(30);
+        /**
+         * 录制数据最大大小
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(200);
+        /**
+         * 只记录耗时超过该阈值的上传阶段和HDFS调用事件
+         */
+        private Duration threshold = Duration.ZERO;
+        /**
+         * 导出录制文件的临时目录
+         */
+        private String dumpDir = System.getProperty("java.io.tmpdir");
+    }
+
+    @Data
+    public static class Export {
+        /**
+         * 是否将span写入本地文件
+         */
+        private boolean enabled = false;
+        private String path = "log/spans.jsonl";
+        /**
+         * 待写入队列长度，队列满时丢弃
+         */
+        private int queueSize = 10000;
+    }
+}
@@ -0,0 +1,66 @@
+package com.anzhou.file_store_proxy.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.core.AprLifecycleListener;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http11.AbstractHttp11JsseProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ *@author pengpan
+ *@description HTTPS连接器调优：OpenSSL实现的TLS、socket缓冲区及HTTP/2窗口大小
+ *@date 09:30 2026/10/19
+ */
+@Configuration
+@Slf4j
+public class TransportConfiguration implements WebServerFactoryCustomizer<TomcatServletWebServerFactory> {
+
+    private static final String OPENSSL_IMPLEMENTATION = "org.apache.tomcat.util.net.openssl.OpenSSLImplementation";
+    private static final String JSSE_IMPLEMENTATION = "org.apache.tomcat.util.net.jsse.JSSEImplementation";
+
+    @Autowired
+    TransportProperties transportProperties;
+
+    @Override
+    public void customize(TomcatServletWebServerFactory factory) {
+        factory.addConnectorCustomizers(connector -> {
+            ProtocolHandler handler = connector.getProtocolHandler();
+            if (handler instanceof AbstractHttp11JsseProtocol && connector.getSecure()) {
+                if (!transportProperties.isOpenssl()) {
+                    // 不显式指定时，Tomcat在检测到tomcat-native后会自动改用OpenSSL
+                    ((AbstractHttp11JsseProtocol<?>) handler).setSslImplementationName(JSSE_IMPLEMENTATION);
+                    log.info("TLS使用JSSE实现");
+                } else if (AprLifecycleListener.isAprAvailable()) {
+                    ((AbstractHttp11JsseProtocol<?>) handler).setSslImplementationName(OPENSSL_IMPLEMENTATION);
+                    log.info("TLS使用OpenSSL实现");
+                } else {
+                    log.warn("未找到tomcat-native库，TLS回退到JSSE实现");
+                }
+            }
+            setBuffer(connector, "socket.rxBufSize", transportProperties.getSocketReceiveBuffer());
+            setBuffer(connector, "socket.txBufSize", transportProperties.getSocketSendBuffer());
+            setBuffer(connector, "socket.appReadBufSize", transportProperties.getAppReadBuffer());
+            setBuffer(connector, "socket.appWriteBufSize", transportProperties.getAppWriteBuffer());
+            for (UpgradeProtocol upgradeProtocol : connector.findUpgradeProtocols()) {
+                if (upgradeProtocol instanceof Http2Protocol) {
+                    Http2Protocol http2 = (Http2Protocol) upgradeProtocol;
+                    http2.setInitialWindowSize((int) transportProperties.getHttp2InitialWindowSize().toBytes());
+                    http2.setMaxConcurrentStreams(transportProperties.getHttp2MaxConcurrentStreams());
+                }
+            }
+        });
+    }
+
+    private static void setBuffer(Connector connector, String name, DataSize size) {
+        if (size != null) {
+            connector.setProperty(name, String.valueOf(size.toBytes()));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.anzhou.file_store_proxy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ *@author pengpan
+ *@description HTTPS连接器调优配置，线程数、排队长度等使用server.tomcat.*配置
+ *@date 09:30 2026/10/19
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "transport")
+public class TransportProperties {
+
+    /**
+     * 是否在安装了tomcat-native(libtcnative)时使用OpenSSL实现TLS，未安装时回退到JSSE
+     */
+    private boolean openssl = true;
+
+    /**
+     * socket接收缓冲区(SO_RCVBUF)，为空时使用系统默认值；显式设置会关闭Linux的接收缓冲区自动调整，
+     * 只在压测确认有收益时配置
+     */
+    private DataSize socketReceiveBuffer;
+
+    /**
+     * socket发送缓冲区(SO_SNDBUF)，为空时使用系统默认值（同样会关闭自动调整）
+     */
+    private DataSize socketSendBuffer;
+
+    /**
+     * Tomcat应用层读缓冲区，为空时使用Tomcat默认值(8KB)；每个连接各占一份堆内存，
+     * 64KB在max-connections为8192时约需1GB堆
+     */
+    private DataSize appReadBuffer;
+
+    /**
+     * Tomcat应用层写缓冲区，为空时使用Tomcat默认值(8KB)
+     */
+    private DataSize appWriteBuffer;
+
+    /**
+     * HTTP/2流的初始窗口大小，默认64KB对大文件上传偏小
+     */
+    private DataSize http2InitialWindowSize = DataSize.ofMegabytes(1);
+
+    /**
+     * 单个HTTP/2连接的最大并发流数；每个上传流最多缓存一个窗口的数据，单连接最坏占用窗口大小乘以流数
+     */
+    private long http2MaxConcurrentStreams = 32;
+}
@@ -0,0 +1,104 @@
+package com.anzhou.file_store_proxy.controller;
+
+import com.anzhou.file_store_proxy.model.BulkItemResult;
+import com.anzhou.file_store_proxy.model.BulkJob;
+import com.anzhou.file_store_proxy.model.BulkRequest;
+import com.anzhou.file_store_proxy.service.BulkOperationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ *@author pengpan
+ *@description 批量HDFS操作接口，供数据保留、迁移等任务使用；仅在管理端口上提供。
+ * 提交后立即返回202及任务ID，通过/proxy/bulk/jobs/{jobId}查询进度和结果
+ *@date 10:30 2026/10/21
+ */
+@RestController
+@RequestMapping("/proxy/bulk")
+public class BulkController {
+
+    private Logger logger = LoggerFactory.getLogger(BulkController.class);
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    BulkOperationService bulkOperationService;
+
+    @PostMapping("/delete")
+    public ResponseEntity<BulkJob> delete(@RequestBody BulkRequest request) {
+        return accepted(bulkOperationService.delete(request));
+    }
+
+    @PostMapping("/rename")
+    public ResponseEntity<BulkJob> rename(@RequestBody BulkRequest request) {
+        return accepted(bulkOperationService.rename(request));
+    }
+
+    @PostMapping("/copy")
+    public ResponseEntity<BulkJob> copy(@RequestBody BulkRequest request) {
+        return accepted(bulkOperationService.copy(request));
+    }
+
+    /**
+     * 上传代理服务器本地目录（相对bulk.local-root）至HDFS
+     */
+    @PostMapping("/upload")
+    public ResponseEntity<BulkJob> upload(@RequestBody BulkRequest request) {
+        return accepted(bulkOperationService.uploadDirectory(request));
+    }
+
+    /**
+     * 下载HDFS目录至代理服务器本地目录（相对bulk.local-root）
+     */
+    @PostMapping("/download")
+    public ResponseEntity<BulkJob> download(@RequestBody BulkRequest request) {
+        return accepted(bulkOperationService.downloadDirectory(request));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<BulkJob> job(@PathVariable String jobId) {
+        BulkJob job = bulkOperationService.getJob(jobId);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+    }
+
+    /**
+     * 分页查询条目结果
+     *
+     * @param status success、failed、skipped，为空时返回全部
+     */
+    @GetMapping("/jobs/{jobId}/results")
+    public ResponseEntity<List<BulkItemResult>> results(@PathVariable String jobId,
+                                                        @RequestParam(required = false) String status,
+                                                        @RequestParam(defaultValue = "0") int offset,
+                                                        @RequestParam(defaultValue = "100") int limit) {
+        if (offset < 0 || limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("offset不能小于0，limit取值范围1~" + MAX_PAGE_SIZE);
+        }
+        List<BulkItemResult> results = bulkOperationService.getResults(jobId, status, offset, limit);
+        return results == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(results);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        logger.warn("批量操作请求无效:{}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> busy(RejectedExecutionException e) {
+        logger.warn("批量任务队列已满");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("批量任务队列已满，请稍后重试");
+    }
+
+    private static ResponseEntity<BulkJob> accepted(BulkJob job) {
+        return ResponseEntity.accepted().location(URI.create("/proxy/bulk/jobs/" + job.getJobId())).body(job);
+    }
+}
@@ -0,0 +1,86 @@
+package com.anzhou.file_store_proxy.controller;
+
+import com.anzhou.file_store_proxy.config.TraceProperties;
+import com.anzhou.file_store_proxy.filter.AdmissionFilter;
+import com.anzhou.file_store_proxy.trace.FlightRecording;
+import com.anzhou.file_store_proxy.trace.JfrSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ *@author pengpan
+ *@description 诊断接口（JFR录制导出、准入控制统计），与批量操作一样只在管理端口上提供
+ *@date 15:00 2026/10/20
+ */
+@RestController
+@RequestMapping("/proxy/diagnostics")
+public class DiagnosticsController {
+
+    private Logger logger = LoggerFactory.getLogger(DiagnosticsController.class);
+    @Autowired
+    TraceProperties traceProperties;
+    @Autowired
+    AdmissionFilter admissionFilter;
+    /**
+     * 快照最大可达录制的max-size，同一时间只允许一次导出
+     */
+    private final AtomicBoolean dumping = new AtomicBoolean();
+
+    /**
+     * 导出当前JFR录制数据，可用JDK Mission Control打开；JVM不支持JFR时返回404，已有导出进行中时返回429
+     */
+    @GetMapping("/recording")
+    public void dumpRecording(HttpServletResponse resp) throws IOException {
+        if (!JfrSupport.isAvailable()) {
+            resp.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        if (!dumping.compareAndSet(false, true)) {
+            resp.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+        Path file = null;
+        try {
+            Path dir = Paths.get(traceProperties.getRecording().getDumpDir());
+            Files.createDirectories(dir);
+            file = Files.createTempFile(dir, "file-store-proxy-", ".jfr");
+            if (!FlightRecording.dump(file)) {
+                resp.sendError(HttpStatus.NOT_FOUND.value());
+                return;
+            }
+            logger.info("导出JFR录制，size:{}", Files.size(file));
+            resp.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            resp.setContentLengthLong(Files.size(file));
+            resp.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"");
+            Files.copy(file, resp.getOutputStream());
+        } finally {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+            dumping.set(false);
+        }
+    }
+
+    /**
+     * 准入控制统计：排队深度、剩余额度及拒绝次数
+     */
+    @GetMapping("/admission")
+    public Map<String, Object> admissionStats() {
+        return admissionFilter.stats();
+    }
+}
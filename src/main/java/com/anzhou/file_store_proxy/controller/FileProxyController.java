@@ -1,41 +1,105 @@
 package com.anzhou.file_store_proxy.controller;
 
+import com.anzhou.file_store_proxy.service.KeyManager;
+import com.anzhou.file_store_proxy.service.UploadPathResolver;
+import com.anzhou.file_store_proxy.trace.Span;
+import com.anzhou.file_store_proxy.util.AesGcmStreams;
 import com.anzhou.file_store_proxy.util.RSAUtils;
-import com.anzhou.file_store_proxy.config.HdfsOperations;
+import com.anzhou.file_store_proxy.config.HdfsRouter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.apache.hadoop.fs.FSDataInputStream;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
 
-import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.*;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Map;
+import java.security.interfaces.RSAPublicKey;
 
 @RestController
 @RequestMapping("/proxy")
 public class FileProxyController {
 
+    private static final String KEY_ID_HEADER = "X-Key-Id";
     private Logger logger = LoggerFactory.getLogger(FileProxyController.class);
-    public static Map<String, String> keyMap = RSAUtils.createKeys(1024);
     @Autowired
-    HdfsOperations hdfsOperations;
-    @Value("${hdfsPath}")
-    private String hdfsPath;
+    HdfsRouter hdfsRouter;
+    @Autowired
+    KeyManager keyManager;
+    @Autowired
+    UploadPathResolver uploadPathResolver;
+    /**
+     * 加密下载每帧的明文大小
+     */
+    @Value("${download.chunk-size:65536}")
+    private int downloadChunkSize;
 
+    /**
+     * 获取当前公钥，密钥版本号通过X-Key-Id响应头返回，客户端可缓存公钥并在上传时携带keyId
+     */
     @GetMapping("/publicKey")
-    public String getPublicKey() {
-        return keyMap.get("publicKey");
+    public String getPublicKey(HttpServletResponse resp) {
+        KeyManager.KeyEntry key = keyManager.current();
+        resp.setHeader(KEY_ID_HEADER, key.getKeyId());
+        return key.getPublicKey();
     }
 
+    /**
+     * 上传加密文件
+     *
+     * @param req multipart请求，file为公钥加密后的文件；keyId为加密所用公钥的版本号，
+     *            可通过参数或X-Key-Id请求头传递，为空时使用当前密钥
+     */
     @PostMapping("/upload")
-    public String upload(MultipartFile file, HttpServletRequest req) throws IOException {
-        InputStream in = null;
+    public String upload(MultipartHttpServletRequest req) throws IOException {
+        MultipartFile file;
+        // multipart按需解析（spring.servlet.multipart.resolve-lazily），第一次取文件时才读取请求体
+        try (Span span = Span.stage("parseMultipart", null)) {
+            span.bytes(req.getContentLengthLong());
+            try {
+                file = req.getFile("file");
+            } catch (RuntimeException e) {
+                span.fail(e);
+                throw e;
+            }
+            if (file == null) {
+                span.fail("missingFile");
+                logger.warn("上传请求缺少file");
+                return "false";
+            }
+        }
         try {
-            in = new ByteArrayInputStream(RSAUtils.privateDecrypt(file.getBytes(), RSAUtils.getPrivateKey(keyMap.get("privateKey"))));
+            String keyId = req.getParameter("keyId");
+            if (keyId == null) {
+                keyId = req.getHeader(KEY_ID_HEADER);
+            }
+            KeyManager.KeyEntry key;
+            try (Span span = Span.stage("keyLookup", keyId)) {
+                key = keyManager.get(keyId);
+                if (key == null) {
+                    span.fail("unknownKey");
+                    logger.warn("密钥不存在或已过期,keyId:{}", keyId);
+                    return "false";
+                }
+            }
+            byte[] encrypted;
+            try (Span span = Span.stage("readPart", file.getOriginalFilename())) {
+                encrypted = file.getBytes();
+                span.bytes(encrypted.length);
+            }
+            byte[] data;
+            try (Span span = Span.stage("decrypt", file.getOriginalFilename())) {
+                span.bytes(encrypted.length);
+                try {
+                    data = RSAUtils.privateDecrypt(encrypted, key.privateKey());
+                } catch (Exception e) {
+                    span.fail(e);
+                    throw e;
+                }
+            }
             String filename = file.getOriginalFilename();
             int unixSep = filename.lastIndexOf('/');
             int winSep = filename.lastIndexOf('\\');
@@ -44,33 +108,71 @@ public class FileProxyController {
                 filename = filename.substring(pos + 1);
             }
             //文件上传至hdfs
-            String hdfPath = "";
-            if (hdfsPath.endsWith("/")) {
-                hdfPath = hdfsPath + "2109/" + dateToStr();
-            } else {
-                hdfPath = hdfsPath + "/2109/" + dateToStr();
+            String dir = uploadPathResolver.partitionDir();
+            String name = filename;
+            // 按挂载表/一致性哈希选择集群，写入失败时切换到下一个集群
+            String cluster;
+            try (Span span = Span.stage("write", dir + "/" + name)) {
+                span.bytes(data.length);
+                cluster = hdfsRouter.write(dir + "/" + name, hdfsOperations -> {
+                    if (!hdfsOperations.mkdir(dir)) {
+                        return false;
+                    }
+                    return hdfsOperations.uploadFileToHdfsByFlow(true, new ByteArrayInputStream(data), dir, name);
+                });
+                if (cluster == null) {
+                    span.fail("allClustersFailed");
+                }
             }
-            if (!hdfsOperations.checkExists(hdfPath)) {
-                hdfsOperations.mkdir(hdfPath);
+            if (cluster != null) {
+                return "success";
             }
-            hdfsOperations.uploadFileToHdfsByFlow(true, in, hdfPath, filename);
-            return "success";
         } catch (Exception e) {
             logger.error("文件上传至hdfs失败,error: ", e.getMessage());
             e.printStackTrace();
-        } finally {
-            in.close();
         }
         return "false";
     }
 
-    /****
-     * 日期转换字符串
-     * @return
+    /**
+     * 加密下载：生成随机AES密钥并用客户端公钥加密，文件内容从HDFS读出后按帧AES-GCM加密流式返回，
+     * 堆内存占用与文件大小无关，格式见AesGcmStreams
+     *
+     * @param path      文件路径，相对hdfsPath，比如：2109/20260101/a.txt
+     * @param publicKey 客户端公钥（X509编码后base64）
      */
-    private String dateToStr() {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd");
-        String dateTime = dateFormat.format(new Date());
-        return dateTime;
+    @PostMapping("/download")
+    public void download(@RequestParam String path, @RequestParam String publicKey, HttpServletResponse resp) throws IOException {
+        RSAPublicKey clientKey;
+        String hdfsFile;
+        try {
+            clientKey = RSAUtils.getPublicKey(publicKey);
+            AesGcmStreams.checkPublicKey(clientKey);
+            hdfsFile = uploadPathResolver.resolveFile(path);
+        } catch (Exception e) {
+            logger.warn("加密下载参数无效,path:{},error:{}", path, e.getMessage());
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        FSDataInputStream in = hdfsRouter.locate(hdfsFile).open(hdfsFile);
+        if (in == null) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String filename = hdfsFile.substring(hdfsFile.lastIndexOf('/') + 1).replace("\"", "");
+        resp.setContentType("application/octet-stream");
+        resp.setHeader("Content-Disposition", "attachment; filename=\"" + filename + ".enc\"");
+        try (Span span = Span.stage("encryptedDownload", hdfsFile); InputStream input = in) {
+            try {
+                span.bytes(AesGcmStreams.encrypt(input, resp.getOutputStream(), clientKey, downloadChunkSize));
+            } catch (Exception e) {
+                span.fail(e);
+                logger.error("加密下载失败,path:{}", hdfsFile, e);
+                if (!resp.isCommitted()) {
+                    resp.reset();
+                    resp.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,63 @@
+package com.anzhou.file_store_proxy.filter;
+
+import com.anzhou.file_store_proxy.config.AdminProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ *@author pengpan
+ *@description 管理接口访问控制：配置了管理端口时，其他端口上的请求返回404；
+ * 配置了令牌时，X-Admin-Token不匹配返回401；既没有管理端口也没有令牌时管理接口不可用
+ *@date 10:30 2026/10/21
+ */
+public class AdminFilter extends OncePerRequestFilter {
+
+    private Logger logger = LoggerFactory.getLogger(AdminFilter.class);
+
+    public static final String TOKEN_HEADER = "X-Admin-Token";
+
+    private final AdminProperties properties;
+
+    public AdminFilter(AdminProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        int port = properties.getPort();
+        String token = properties.getToken();
+        boolean hasToken = token != null && !token.isEmpty();
+        // 不暴露管理接口的存在
+        if (port > 0 ? request.getLocalPort() != port : !hasToken) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        if (hasToken && !matches(token, request.getHeader(TOKEN_HEADER))) {
+            logger.warn("管理接口令牌校验失败，uri:{}, remote:{}", request.getRequestURI(), request.getRemoteAddr());
+            response.sendError(HttpStatus.UNAUTHORIZED.value());
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * 常量时间比较，避免通过响应时间猜测令牌
+     */
+    private static boolean matches(String expected, String actual) {
+        if (actual == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), actual.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,223 @@
+package com.anzhou.file_store_proxy.filter;
+
+import com.anzhou.file_store_proxy.config.AdmissionProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *@author pengpan
+ *@description 准入控制：按全局/客户端的并发数和在途堆内存（Content-Length乘以堆内放大倍数）限流，
+ * 避免大文件并发上传把整个JVM打爆。上传缺少Content-Length返回411，超过全局额度返回413；
+ * 客户端超限直接返回429，全局额度不足时在公平队列中等待，超时或队列已满返回503
+ *@date 14:10 2026/10/19
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private Logger logger = LoggerFactory.getLogger(AdmissionFilter.class);
+
+    /**
+     * 字节额度以KB为单位换算成信号量许可
+     */
+    private static final long PERMIT_BYTES = 1024;
+
+    private final AdmissionProperties properties;
+    private final Semaphore concurrency;
+    private final Semaphore inflightBytes;
+    private final long maxInflightBytes;
+    private final int maxBytePermits;
+    private final Map<String, ClientBudget> clients = new ConcurrentHashMap<>();
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejectedClient = new AtomicLong();
+    private final AtomicLong rejectedQueueFull = new AtomicLong();
+    private final AtomicLong rejectedTimeout = new AtomicLong();
+    private final AtomicLong rejectedLengthRequired = new AtomicLong();
+    private final AtomicLong rejectedTooLarge = new AtomicLong();
+
+    public AdmissionFilter(AdmissionProperties properties) {
+        this.properties = properties;
+        this.concurrency = new Semaphore(properties.getMaxConcurrent(), true);
+        this.maxInflightBytes = properties.getMaxInflightBytes() != null ? properties.getMaxInflightBytes().toBytes()
+                : Runtime.getRuntime().maxMemory() / 2;
+        this.maxBytePermits = toPermits(maxInflightBytes);
+        this.inflightBytes = new Semaphore(maxBytePermits, true);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long contentLength = request.getContentLengthLong();
+        int multiplier = Math.max(properties.getHeapMultiplier(), 1);
+        long length;
+        if (contentLength < 0) {
+            // 分块上传的实际大小不受额度约束，multipart请求必须携带Content-Length
+            if (isMultipart(request)) {
+                rejectedLengthRequired.incrementAndGet();
+                reject(response, HttpStatus.LENGTH_REQUIRED, "上传请求缺少Content-Length");
+                return;
+            }
+            length = Math.min(properties.getUnknownLengthBytes().toBytes() * multiplier, maxInflightBytes);
+        } else if (contentLength > maxInflightBytes / multiplier) {
+            // 单个请求超过全局额度时永远无法准入
+            rejectedTooLarge.incrementAndGet();
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "请求大小超过在途字节数上限");
+            return;
+        } else {
+            // 按请求在堆上的实际占用计入额度
+            length = contentLength * multiplier;
+        }
+        int permits = toPermits(length);
+
+        String clientId = clientId(request);
+        if (!acquireClient(clientId, length)) {
+            rejectedClient.incrementAndGet();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, "客户端并发或在途字节数超限");
+            return;
+        }
+        boolean concurrencyAcquired = false;
+        boolean bytesAcquired = false;
+        try {
+            if (concurrency.getQueueLength() + inflightBytes.getQueueLength() >= properties.getMaxQueueLength()) {
+                rejectedQueueFull.incrementAndGet();
+                reject(response, HttpStatus.SERVICE_UNAVAILABLE, "排队请求过多");
+                return;
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getQueueTimeoutMs());
+            concurrencyAcquired = concurrency.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (concurrencyAcquired) {
+                bytesAcquired = inflightBytes.tryAcquire(permits, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+            if (!bytesAcquired) {
+                rejectedTimeout.incrementAndGet();
+                reject(response, HttpStatus.SERVICE_UNAVAILABLE, "等待准入超时");
+                return;
+            }
+            admitted.incrementAndGet();
+            chain.doFilter(request, response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, "等待准入被中断");
+        } finally {
+            if (bytesAcquired) {
+                inflightBytes.release(permits);
+            }
+            if (concurrencyAcquired) {
+                concurrency.release();
+            }
+            releaseClient(clientId, length);
+        }
+    }
+
+    /**
+     * 准入控制统计，包括排队深度、剩余额度及拒绝次数
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("concurrencyQueueLength", concurrency.getQueueLength());
+        stats.put("bytesQueueLength", inflightBytes.getQueueLength());
+        stats.put("availableConcurrency", concurrency.availablePermits());
+        stats.put("maxInflightBytes", maxInflightBytes);
+        stats.put("availableBytes", (long) inflightBytes.availablePermits() * PERMIT_BYTES);
+        stats.put("activeClients", clients.size());
+        stats.put("admitted", admitted.get());
+        stats.put("rejectedClient", rejectedClient.get());
+        stats.put("rejectedQueueFull", rejectedQueueFull.get());
+        stats.put("rejectedTimeout", rejectedTimeout.get());
+        stats.put("rejectedLengthRequired", rejectedLengthRequired.get());
+        stats.put("rejectedTooLarge", rejectedTooLarge.get());
+        return stats;
+    }
+
+    /**
+     * 默认按客户端IP识别，配置了client-id-header时才使用请求头（仅适用于由可信网关设置该请求头的部署）
+     */
+    private String clientId(HttpServletRequest request) {
+        String header = properties.getClientIdHeader();
+        if (header != null && !header.isEmpty()) {
+            String value = request.getHeader(header);
+            if (value != null && !value.isEmpty()) {
+                return value;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private boolean acquireClient(String clientId, long length) {
+        boolean[] acquired = new boolean[1];
+        clients.compute(clientId, (k, v) -> {
+            ClientBudget budget = v == null ? new ClientBudget() : v;
+            acquired[0] = budget.tryAcquire(length, properties.getPerClientMaxConcurrent(),
+                    properties.getPerClientMaxInflightBytes().toBytes());
+            return budget.isIdle() ? null : budget;
+        });
+        return acquired[0];
+    }
+
+    private void releaseClient(String clientId, long length) {
+        // 空闲的客户端记录及时清除，避免按IP无限增长
+        clients.computeIfPresent(clientId, (k, v) -> {
+            v.release(length);
+            return v.isIdle() ? null : v;
+        });
+    }
+
+    private static boolean isMultipart(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.regionMatches(true, 0, "multipart/", 0, 10);
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String reason) throws IOException {
+        logger.warn("请求被准入控制拒绝,status:{},reason:{}", status.value(), reason);
+        // 411、413重试也不会成功
+        if (status == HttpStatus.TOO_MANY_REQUESTS || status == HttpStatus.SERVICE_UNAVAILABLE) {
+            response.setHeader("Retry-After", String.valueOf(properties.getRetryAfterSeconds()));
+        }
+        response.sendError(status.value(), reason);
+    }
+
+    private static int toPermits(long bytes) {
+        long permits = (bytes + PERMIT_BYTES - 1) / PERMIT_BYTES;
+        return (int) Math.min(Math.max(permits, 1), Integer.MAX_VALUE);
+    }
+
+    /**
+     * 单个客户端的在途请求数和字节数，超限不排队；只在ConcurrentHashMap.compute内修改
+     */
+    private static class ClientBudget {
+        private int requests;
+        private long bytes;
+
+        boolean tryAcquire(long length, int maxRequests, long maxBytes) {
+            // 首个请求即使超过字节额度也放行，交给全局额度兜底
+            if (requests >= maxRequests || (requests > 0 && bytes + length > maxBytes)) {
+                return false;
+            }
+            requests++;
+            bytes += length;
+            return true;
+        }
+
+        void release(long length) {
+            requests--;
+            bytes -= length;
+        }
+
+        boolean isIdle() {
+            return requests == 0;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.anzhou.file_store_proxy.model;
+
+import lombok.Data;
+
+/**
+ *@author pengpan
+ *@description 批量操作中单个条目的执行结果
+ *@date 10:30 2026/10/21
+ */
+@Data
+public class BulkItemResult {
+
+    private String source;
+    private String target;
+    /**
+     * success、failed、skipped（清单中已完成）
+     */
+    private String status;
+    private String message;
+    private long durationMs;
+}
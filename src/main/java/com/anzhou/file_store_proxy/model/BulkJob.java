@@ -0,0 +1,34 @@
+package com.anzhou.file_store_proxy.model;
+
+import lombok.Data;
+
+/**
+ *@author pengpan
+ *@description 批量任务状态，各条目的结果通过/proxy/bulk/jobs/{jobId}/results分页查询
+ *@date 10:30 2026/10/21
+ */
+@Data
+public class BulkJob {
+
+    private String jobId;
+    private String operation;
+    /**
+     * queued、running、completed、failed（任务整体失败，比如被中断、无法连接HDFS）
+     */
+    private String state;
+    /**
+     * 进度清单（相对bulk.local-root），重新提交时带上该清单即可跳过已完成的条目
+     */
+    private String manifest;
+    /**
+     * 条目总数，目录上传/下载在列出文件后才确定
+     */
+    private int total;
+    private int succeeded;
+    private int failed;
+    private int skipped;
+    private long submittedAt;
+    private long startedAt;
+    private long finishedAt;
+    private String error;
+}
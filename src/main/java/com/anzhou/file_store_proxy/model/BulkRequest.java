@@ -0,0 +1,57 @@
+package com.anzhou.file_store_proxy.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *@author pengpan
+ *@description 批量操作请求
+ *@date 10:30 2026/10/21
+ */
+@Data
+public class BulkRequest {
+
+    /**
+     * 目标集群名称，为空时使用默认集群
+     */
+    private String cluster;
+
+    /**
+     * 批量删除的HDFS路径，HDFS路径均相对hdfsPath，不能访问hdfsPath之外的文件
+     */
+    private List<String> paths = new ArrayList<>();
+
+    /**
+     * 批量重命名/复制的源路径和目标路径
+     */
+    private List<Item> items = new ArrayList<>();
+
+    /**
+     * 目录上传/下载的源目录
+     */
+    private String source;
+
+    /**
+     * 目录上传/下载的目标目录
+     */
+    private String target;
+
+    /**
+     * 是否覆盖已存在的目标文件
+     */
+    private boolean overwrite = true;
+
+    /**
+     * 进度清单文件（相对bulk.local-root），已完成的条目会追加到清单中，重新提交同一任务时跳过；
+     * 为空时使用jobs/{jobId}.manifest，可从任务状态中取得后用于续跑
+     */
+    private String manifest;
+
+    @Data
+    public static class Item {
+        private String source;
+        private String target;
+    }
+}
@@ -0,0 +1,674 @@
+package com.anzhou.file_store_proxy.service;
+
+import com.anzhou.file_store_proxy.config.BulkProperties;
+import com.anzhou.file_store_proxy.config.HdfsOperations;
+import com.anzhou.file_store_proxy.config.HdfsRouter;
+import com.anzhou.file_store_proxy.model.BulkItemResult;
+import com.anzhou.file_store_proxy.model.BulkJob;
+import com.anzhou.file_store_proxy.model.BulkRequest;
+import com.anzhou.file_store_proxy.trace.RequestContext;
+import com.anzhou.file_store_proxy.trace.Span;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ *@author pengpan
+ *@description 批量HDFS操作：提交后在任务线程池中异步执行，条目在有界线程池上并行处理，共用同一个HDFS客户端，
+ * 每次NameNode调用都按全局速率限流，支持通过进度清单断点续跑
+ *@date 10:30 2026/10/21
+ */
+@Service
+public class BulkOperationService {
+
+    private Logger logger = LoggerFactory.getLogger(BulkOperationService.class);
+
+    private static final String SUCCESS = "success";
+    private static final String FAILED = "failed";
+    private static final String SKIPPED = "skipped";
+
+    private static final String QUEUED = "queued";
+    private static final String RUNNING = "running";
+    private static final String COMPLETED = "completed";
+
+    /**
+     * 未指定进度清单时，任务清单在local-root下的目录
+     */
+    private static final String JOB_MANIFEST_DIR = "jobs";
+    /**
+     * 递归列出HDFS目录时，每列出这么多文件计一次NameNode调用
+     */
+    private static final int LIST_BATCH = 1000;
+
+    @Autowired
+    BulkProperties properties;
+    @Autowired
+    HdfsRouter hdfsRouter;
+    @Autowired
+    UploadPathResolver uploadPathResolver;
+
+    /**
+     * 执行条目的线程池，所有批量任务共用
+     */
+    private ThreadPoolExecutor executor;
+    /**
+     * 执行批量任务的线程池，队列满时拒绝提交
+     */
+    private ThreadPoolExecutor jobExecutor;
+    /**
+     * 任务ID -> 任务，按提交顺序，访问时同步
+     */
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+    /**
+     * 下一个操作许可的发放时间，所有批量任务共用
+     */
+    private long nextPermitNanos;
+
+    @PostConstruct
+    public void init() {
+        executor = newPool(properties.getPoolSize(), new LinkedBlockingQueue<>(), "bulk-");
+        jobExecutor = newPool(properties.getMaxConcurrentJobs(), new LinkedBlockingQueue<>(properties.getMaxQueuedJobs()),
+                "bulk-job-");
+    }
+
+    @PreDestroy
+    public void destroy() {
+        jobExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * 批量删除HDFS文件或目录
+     */
+    public BulkJob delete(BulkRequest request) {
+        HdfsOperations ops = operations(request);
+        List<BulkRequest.Item> items = new ArrayList<>();
+        for (String path : request.getPaths()) {
+            hdfsPath(ops, path);
+            BulkRequest.Item item = new BulkRequest.Item();
+            item.setSource(path);
+            items.add(item);
+        }
+        checkSize(items.size());
+        return submit("delete", ops, request.getManifest(), fs -> items, (fs, item) -> {
+            throttle(1);
+            return fs.delete(hdfsPath(ops, item.getSource()), true);
+        });
+    }
+
+    /**
+     * 批量重命名，目标目录不存在时自动创建
+     */
+    public BulkJob rename(BulkRequest request) {
+        HdfsOperations ops = operations(request);
+        List<BulkRequest.Item> items = hdfsItems(ops, request);
+        return submit("rename", ops, request.getManifest(), fs -> items, (fs, item) -> {
+            Path target = hdfsPath(ops, item.getTarget());
+            // mkdirs及rename
+            throttle(2);
+            fs.mkdirs(target.getParent());
+            return fs.rename(hdfsPath(ops, item.getSource()), target);
+        });
+    }
+
+    /**
+     * 批量复制（集群内），目录逐个文件复制，每次调用都限流
+     */
+    public BulkJob copy(BulkRequest request) {
+        HdfsOperations ops = operations(request);
+        List<BulkRequest.Item> items = hdfsItems(ops, request);
+        for (BulkRequest.Item item : items) {
+            String source = hdfsPath(ops, item.getSource()).toUri().getPath() + "/";
+            String target = hdfsPath(ops, item.getTarget()).toUri().getPath() + "/";
+            if (target.startsWith(source)) {
+                throw new IllegalArgumentException("不能复制到自身或其子目录:" + item.getTarget());
+            }
+        }
+        boolean overwrite = request.isOverwrite();
+        return submit("copy", ops, request.getManifest(), fs -> items, (fs, item) -> {
+            Path source = hdfsPath(ops, item.getSource());
+            Path target = hdfsPath(ops, item.getTarget());
+            // 与FileUtil.copy一致：目标为已存在的目录时复制到其下
+            throttle(1);
+            try {
+                if (fs.getFileStatus(target).isDirectory()) {
+                    target = new Path(target, source.getName());
+                }
+            } catch (FileNotFoundException e) {
+                // 目标不存在时直接复制为目标路径
+            }
+            return copy(fs, source, target, overwrite);
+        });
+    }
+
+    /**
+     * 将代理服务器本地目录递归上传至HDFS，保持相对目录结构；不跟随符号链接，只上传本地根目录下的普通文件
+     */
+    public BulkJob uploadDirectory(BulkRequest request) {
+        HdfsOperations ops = operations(request);
+        java.nio.file.Path root = localPath(request.getSource());
+        hdfsPath(ops, request.getTarget());
+        boolean overwrite = request.isOverwrite();
+        return submit("upload", ops, request.getManifest(), fs -> {
+            List<BulkRequest.Item> items = new ArrayList<>();
+            java.nio.file.Path realRoot = realLocalPath(root);
+            try (Stream<java.nio.file.Path> files = Files.walk(realRoot)) {
+                for (java.nio.file.Path file : files.filter(f -> Files.isRegularFile(f, LinkOption.NOFOLLOW_LINKS))
+                        .collect(Collectors.toList())) {
+                    BulkRequest.Item item = new BulkRequest.Item();
+                    item.setSource(file.toString());
+                    item.setTarget(join(request.getTarget(), realRoot.relativize(file).toString().replace('\\', '/')));
+                    items.add(item);
+                    checkSize(items.size());
+                }
+            }
+            return items;
+        }, (fs, item) -> {
+            // 列出后文件可能被替换为符号链接，上传前再次校验
+            java.nio.file.Path file = Paths.get(item.getSource());
+            if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+                throw new IOException("不是普通文件:" + item.getSource());
+            }
+            realLocalPath(file);
+            // create及complete
+            throttle(2);
+            fs.copyFromLocalFile(false, overwrite, new Path(item.getSource()), hdfsPath(ops, item.getTarget()));
+            return true;
+        });
+    }
+
+    /**
+     * 将HDFS目录递归下载至代理服务器本地，保持相对目录结构
+     */
+    public BulkJob downloadDirectory(BulkRequest request) {
+        HdfsOperations ops = operations(request);
+        Path source = hdfsPath(ops, request.getSource());
+        java.nio.file.Path localRoot = localPath(request.getTarget());
+        return submit("download", ops, request.getManifest(), fs -> {
+            List<BulkRequest.Item> items = new ArrayList<>();
+            Path root = fs.makeQualified(source);
+            String rootPath = root.toUri().getPath();
+            throttle(1);
+            RemoteIterator<LocatedFileStatus> files = fs.listFiles(root, true);
+            while (files.hasNext()) {
+                String relative = files.next().getPath().toUri().getPath().substring(rootPath.length()).replaceFirst("^/+", "");
+                BulkRequest.Item item = new BulkRequest.Item();
+                item.setSource(relative.isEmpty() ? request.getSource() : join(request.getSource(), relative));
+                item.setTarget(localRoot.resolve(relative).toString());
+                items.add(item);
+                checkSize(items.size());
+                if (items.size() % LIST_BATCH == 0) {
+                    throttle(1);
+                }
+            }
+            return items;
+        }, (fs, item) -> {
+            // getFileStatus及open
+            throttle(2);
+            fs.copyToLocalFile(false, hdfsPath(ops, item.getSource()), new Path(item.getTarget()), true);
+            return true;
+        });
+    }
+
+    /**
+     * 查询任务状态
+     *
+     * @return 任务不存在（或已过保留期）时返回null
+     */
+    public BulkJob getJob(String jobId) {
+        Job job = findJob(jobId);
+        return job == null ? null : job.snapshot();
+    }
+
+    /**
+     * 分页查询任务中已结束条目的结果
+     *
+     * @param status 只返回该状态的条目，为空时返回全部
+     * @return 任务不存在（或已过保留期）时返回null
+     */
+    public List<BulkItemResult> getResults(String jobId, String status, int offset, int limit) {
+        Job job = findJob(jobId);
+        if (job == null) {
+            return null;
+        }
+        List<BulkItemResult> page = new ArrayList<>();
+        AtomicReferenceArray<BulkItemResult> results = job.results;
+        int matched = 0;
+        for (int i = 0; i < results.length() && page.size() < limit; i++) {
+            BulkItemResult result = results.get(i);
+            if (result == null || (status != null && !status.equals(result.getStatus()))) {
+                continue;
+            }
+            if (matched++ >= offset) {
+                page.add(result);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * 提交任务，任务队列已满时抛出RejectedExecutionException
+     */
+    private BulkJob submit(String operation, HdfsOperations ops, String manifest, ItemLister lister, ItemTask task) {
+        String jobId = UUID.randomUUID().toString().replace("-", "");
+        if (manifest == null || manifest.isEmpty()) {
+            manifest = JOB_MANIFEST_DIR + "/" + jobId + ".manifest";
+        }
+        localPath(manifest);
+        Job job = new Job(jobId, operation, manifest);
+        String requestId = RequestContext.getRequestId();
+        synchronized (jobs) {
+            jobExecutor.execute(() -> runJob(job, ops, lister, task, requestId));
+            jobs.put(jobId, job);
+            evictFinished();
+        }
+        logger.info("提交批量{}任务{}，manifest:{}", operation, jobId, manifest);
+        return job.snapshot();
+    }
+
+    private void runJob(Job job, HdfsOperations ops, ItemLister lister, ItemTask task, String requestId) {
+        RequestContext.setRequestId(requestId);
+        job.startedAt = System.currentTimeMillis();
+        job.state = RUNNING;
+        try (HdfsOperations.FileSystemLease lease = ops.leaseFileSystem()) {
+            FileSystem fileSystem = lease.get();
+            List<BulkRequest.Item> items = lister.list(fileSystem);
+            run(job, ops, fileSystem, items, task);
+            job.state = COMPLETED;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            logger.error("批量{}任务{}失败", job.operation, job.jobId, e);
+            job.error = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+            job.state = FAILED;
+        } finally {
+            job.finishedAt = System.currentTimeMillis();
+            logger.info("批量{}任务{}结束，state:{}, total:{}, succeeded:{}, failed:{}, skipped:{}, 耗时{}ms", job.operation,
+                    job.jobId, job.state, job.results.length(), job.succeeded.get(), job.failed.get(), job.skipped.get(),
+                    job.finishedAt - job.startedAt);
+            RequestContext.clear();
+        }
+    }
+
+    private void run(Job job, HdfsOperations ops, FileSystem fileSystem, List<BulkRequest.Item> items, ItemTask task)
+            throws IOException, InterruptedException {
+        checkSize(items.size());
+        Set<String> completed = loadManifest(job.manifest);
+        job.results = new AtomicReferenceArray<>(items.size());
+        Semaphore inflight = new Semaphore(properties.getParallelism());
+        CountDownLatch done = new CountDownLatch(items.size());
+        String requestId = RequestContext.getRequestId();
+        Exception aborted = null;
+        try (BufferedWriter manifestWriter = openManifest(job.manifest)) {
+            for (int i = 0; i < items.size(); i++) {
+                BulkRequest.Item item = items.get(i);
+                String key = manifestKey(job.operation, item);
+                if (completed.contains(key)) {
+                    job.complete(i, result(item, SKIPPED, null, 0));
+                    done.countDown();
+                    continue;
+                }
+                try {
+                    inflight.acquire();
+                } catch (InterruptedException e) {
+                    aborted = e;
+                    failRemaining(job, items, i, "interrupted", done);
+                    break;
+                }
+                int index = i;
+                try {
+                    executor.execute(() -> {
+                        RequestContext.setRequestId(requestId);
+                        long itemStart = System.currentTimeMillis();
+                        try (Span span = Span.hdfs(ops.getDefaultHdfsUri(), "bulk-" + job.operation, item.getSource())) {
+                            try {
+                                if (task.run(fileSystem, item)) {
+                                    appendManifest(manifestWriter, key);
+                                    job.complete(index, result(item, SUCCESS, null,
+                                            System.currentTimeMillis() - itemStart));
+                                } else {
+                                    span.fail("returnedFalse");
+                                    job.complete(index, result(item, FAILED, job.operation + " returned false",
+                                            System.currentTimeMillis() - itemStart));
+                                }
+                            } catch (Exception e) {
+                                span.fail(e);
+                                logger.error("批量{}失败，source:{}, target:{}", job.operation, item.getSource(),
+                                        item.getTarget(), e);
+                                job.complete(index, result(item, FAILED, e.getMessage(),
+                                        System.currentTimeMillis() - itemStart));
+                            }
+                        } finally {
+                            RequestContext.clear();
+                            inflight.release();
+                            done.countDown();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // 服务关闭时线程池拒绝提交，剩余条目直接记为失败，避免一直等待
+                    inflight.release();
+                    aborted = e;
+                    failRemaining(job, items, i, "rejected", done);
+                    break;
+                }
+            }
+            // 等待已提交的条目结束后再关闭清单和释放客户端
+            done.await();
+        }
+        if (aborted instanceof InterruptedException) {
+            throw (InterruptedException) aborted;
+        }
+        if (aborted != null) {
+            throw new IOException("批量任务被终止", aborted);
+        }
+    }
+
+    private void failRemaining(Job job, List<BulkRequest.Item> items, int from, String message, CountDownLatch done) {
+        for (int i = from; i < items.size(); i++) {
+            job.complete(i, result(items.get(i), FAILED, message, 0));
+            done.countDown();
+        }
+    }
+
+    /**
+     * 复制文件或目录，目录逐层创建并逐个复制文件
+     */
+    private boolean copy(FileSystem fs, Path source, Path target, boolean overwrite) throws IOException {
+        throttle(1);
+        if (!fs.getFileStatus(source).isDirectory()) {
+            // 目标检查、create及open
+            throttle(2);
+            return FileUtil.copy(fs, source, fs, target, false, overwrite, fs.getConf());
+        }
+        // mkdirs及listStatus
+        throttle(2);
+        if (!fs.mkdirs(target)) {
+            return false;
+        }
+        for (FileStatus child : fs.listStatus(source)) {
+            if (!copy(fs, child.getPath(), new Path(target, child.getPath().getName()), overwrite)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按全局速率发放操作许可
+     *
+     * @param ops 即将发起的NameNode调用数
+     */
+    private void throttle(int ops) throws InterruptedIOException {
+        int rate = properties.getMaxOpsPerSecond();
+        if (rate <= 0) {
+            return;
+        }
+        long interval = TimeUnit.SECONDS.toNanos(ops) / rate;
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long next = Math.max(nextPermitNanos, now);
+            nextPermitNanos = next + interval;
+            wait = next - now;
+        }
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待操作许可被中断");
+            }
+        }
+    }
+
+    private HdfsOperations operations(BulkRequest request) {
+        if (request.getCluster() == null || request.getCluster().isEmpty()) {
+            return hdfsRouter.getDefault();
+        }
+        HdfsOperations ops = hdfsRouter.get(request.getCluster());
+        if (ops == null) {
+            throw new IllegalArgumentException("HDFS集群不存在:" + request.getCluster());
+        }
+        return ops;
+    }
+
+    /**
+     * 校验重命名/复制条目的源路径和目标路径
+     */
+    private List<BulkRequest.Item> hdfsItems(HdfsOperations ops, BulkRequest request) {
+        List<BulkRequest.Item> items = new ArrayList<>(request.getItems());
+        for (BulkRequest.Item item : items) {
+            hdfsPath(ops, item.getSource());
+            hdfsPath(ops, item.getTarget());
+        }
+        checkSize(items.size());
+        return items;
+    }
+
+    /**
+     * 将请求中的HDFS路径解析到hdfsPath下，禁止访问hdfsPath之外的文件
+     */
+    private Path hdfsPath(HdfsOperations ops, String path) {
+        if (path == null) {
+            throw new IllegalArgumentException("HDFS路径不能为空");
+        }
+        return new Path(ops.generateHdfsPath(uploadPathResolver.resolveFile(path)));
+    }
+
+    /**
+     * 将请求中的本地路径解析到本地根目录下，禁止访问根目录之外的文件
+     */
+    private java.nio.file.Path localPath(String path) {
+        if (path == null || path.isEmpty()) {
+            throw new IllegalArgumentException("本地路径不能为空");
+        }
+        java.nio.file.Path root = Paths.get(properties.getLocalRoot()).toAbsolutePath().normalize();
+        java.nio.file.Path resolved = root.resolve(path.replaceFirst("^[/\\\\]+", "")).normalize();
+        if (!resolved.startsWith(root)) {
+            throw new IllegalArgumentException("本地路径超出允许范围:" + path);
+        }
+        return resolved;
+    }
+
+    /**
+     * 解析符号链接后的真实路径，必须仍在本地根目录下
+     */
+    private java.nio.file.Path realLocalPath(java.nio.file.Path path) throws IOException {
+        java.nio.file.Path realRoot = Paths.get(properties.getLocalRoot()).toRealPath();
+        java.nio.file.Path real = path.toRealPath();
+        if (!real.startsWith(realRoot)) {
+            throw new IllegalArgumentException("本地路径超出允许范围:" + path);
+        }
+        return real;
+    }
+
+    private void checkSize(int size) {
+        if (size > properties.getMaxItems()) {
+            throw new IllegalArgumentException("批量操作条目数超过上限:" + properties.getMaxItems());
+        }
+    }
+
+    private Job findJob(String jobId) {
+        synchronized (jobs) {
+            return jobs.get(jobId);
+        }
+    }
+
+    /**
+     * 已结束的任务超过保留数时，移除最早提交的
+     */
+    private void evictFinished() {
+        int excess = -properties.getRetainedJobs();
+        for (Job job : jobs.values()) {
+            if (job.isFinished()) {
+                excess++;
+            }
+        }
+        for (Iterator<Job> it = jobs.values().iterator(); it.hasNext() && excess > 0; ) {
+            if (it.next().isFinished()) {
+                it.remove();
+                excess--;
+            }
+        }
+    }
+
+    private Set<String> loadManifest(String manifest) throws IOException {
+        Set<String> completed = new HashSet<>();
+        java.nio.file.Path file = localPath(manifest);
+        if (Files.exists(file)) {
+            completed.addAll(Files.readAllLines(file, StandardCharsets.UTF_8));
+        }
+        return completed;
+    }
+
+    private BufferedWriter openManifest(String manifest) throws IOException {
+        java.nio.file.Path file = localPath(manifest);
+        Files.createDirectories(file.getParent());
+        return Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void appendManifest(BufferedWriter writer, String key) throws IOException {
+        synchronized (writer) {
+            writer.write(key);
+            writer.newLine();
+            writer.flush();
+        }
+    }
+
+    private static ThreadPoolExecutor newPool(int size, LinkedBlockingQueue<Runnable> queue, String prefix) {
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS, queue, r -> {
+            Thread thread = new Thread(r, prefix + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static String manifestKey(String operation, BulkRequest.Item item) {
+        return operation + '\t' + item.getSource() + '\t' + item.getTarget();
+    }
+
+    private static String join(String dir, String child) {
+        return dir.endsWith("/") ? dir + child : dir + "/" + child;
+    }
+
+    private static BulkItemResult result(BulkRequest.Item item, String status, String message, long durationMs) {
+        BulkItemResult result = new BulkItemResult();
+        result.setSource(item.getSource());
+        result.setTarget(item.getTarget());
+        result.setStatus(status);
+        result.setMessage(message);
+        result.setDurationMs(durationMs);
+        return result;
+    }
+
+    /**
+     * 列出任务的全部条目，在任务线程中执行
+     */
+    private interface ItemLister {
+        List<BulkRequest.Item> list(FileSystem fileSystem) throws IOException;
+    }
+
+    /**
+     * 单个条目的操作，返回是否成功；发起NameNode调用前先调用throttle
+     */
+    private interface ItemTask {
+        boolean run(FileSystem fileSystem, BulkRequest.Item item) throws IOException;
+    }
+
+    /**
+     * 执行中的任务，条目结果由各条目线程写入
+     */
+    private static final class Job {
+        private final String jobId;
+        private final String operation;
+        private final String manifest;
+        private final long submittedAt = System.currentTimeMillis();
+        private volatile String state = QUEUED;
+        private volatile long startedAt;
+        private volatile long finishedAt;
+        private volatile String error;
+        private volatile AtomicReferenceArray<BulkItemResult> results = new AtomicReferenceArray<>(0);
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+
+        private Job(String jobId, String operation, String manifest) {
+            this.jobId = jobId;
+            this.operation = operation;
+            this.manifest = manifest;
+        }
+
+        private void complete(int index, BulkItemResult result) {
+            results.set(index, result);
+            if (SUCCESS.equals(result.getStatus())) {
+                succeeded.incrementAndGet();
+            } else if (SKIPPED.equals(result.getStatus())) {
+                skipped.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+        }
+
+        private boolean isFinished() {
+            return COMPLETED.equals(state) || FAILED.equals(state);
+        }
+
+        private BulkJob snapshot() {
+            BulkJob job = new BulkJob();
+            job.setJobId(jobId);
+            job.setOperation(operation);
+            job.setState(state);
+            job.setManifest(manifest);
+            job.setTotal(results.length());
+            job.setSucceeded(succeeded.get());
+            job.setFailed(failed.get());
+            job.setSkipped(skipped.get());
+            job.setSubmittedAt(submittedAt);
+            job.setStartedAt(startedAt);
+            job.setFinishedAt(finishedAt);
+            job.setError(error);
+            return job;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.anzhou.file_store_proxy.service;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.annotation.JSONField;
+import com.anzhou.file_store_proxy.config.HdfsOperations;
+import com.anzhou.file_store_proxy.config.HdfsRouter;
+import com.anzhou.file_store_proxy.config.KeyStoreProperties;
+import com.anzhou.file_store_proxy.util.RSAUtils;
+import lombok.Data;
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileAlreadyExistsException;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Options;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.hdfs.DistributedFileSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.interfaces.RSAPrivateKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *@author pengpan
+ *@description RSA密钥管理：从共享的密钥库文件加载带版本号(keyId)的密钥对，后台定时轮换，
+ * 轮换后旧密钥在重叠期内仍可解密。密钥库为空时在后台生成，不阻塞启动
+ *@date 16:30 2026/10/19
+ */
+@Service
+public class KeyManager {
+
+    private Logger logger = LoggerFactory.getLogger(KeyManager.class);
+    private static final long READY_TIMEOUT_SECONDS = 60;
+    private static final long MISS_RELOAD_INTERVAL_MS = 1000;
+    private static final long LOCK_LEASE_MS = 60000;
+    private static final long LOCK_RETRY_MS = 500;
+    private static final FsPermission KEY_FILE_PERMISSION = new FsPermission((short) 0600);
+
+    @Autowired
+    private KeyStoreProperties properties;
+    @Autowired
+    private HdfsRouter hdfsRouter;
+
+    /**
+     * keyId -> 密钥
+     */
+    private final Map<String, KeyEntry> keys = new ConcurrentHashMap<>();
+    /**
+     * 首个可用密钥就绪后完成
+     */
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private volatile KeyEntry active;
+    private final AtomicLong lastMissReload = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "key-manager");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 加载已有密钥库只需读取文件；首次部署时生成密钥较慢，放到后台执行
+        try {
+            merge(load());
+        } catch (Exception e) {
+            logger.error("加载密钥库失败，path:{}", properties.getPath(), e);
+        }
+        scheduler.execute(this::refresh);
+        scheduler.scheduleWithFixedDelay(this::refresh, properties.getReloadSeconds(),
+                properties.getReloadSeconds(), TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 当前用于加密的密钥，首次生成完成前会等待
+     */
+    public KeyEntry current() {
+        try {
+            ready.get(READY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待RSA密钥被中断", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("RSA密钥尚未就绪", e);
+        }
+        return active;
+    }
+
+    /**
+     * 根据keyId获取密钥，keyId为空时返回当前密钥
+     *
+     * @param keyId 密钥版本号
+     * @return 密钥，已过期或不存在时返回null
+     */
+    public KeyEntry get(String keyId) {
+        if (keyId == null || keyId.isEmpty()) {
+            return current();
+        }
+        KeyEntry entry = keys.get(keyId);
+        if (entry == null) {
+            // 可能是其他实例刚轮换出的密钥，尚未到定时加载时间
+            reloadOnMiss();
+            entry = keys.get(keyId);
+        }
+        if (entry == null || isExpired(entry, System.currentTimeMillis())) {
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * 未命中keyId时重新读取密钥库，限制频率避免无效keyId反复读文件
+     */
+    private void reloadOnMiss() {
+        long now = System.currentTimeMillis();
+        long last = lastMissReload.get();
+        if (now - last < MISS_RELOAD_INTERVAL_MS || !lastMissReload.compareAndSet(last, now)) {
+            return;
+        }
+        try {
+            merge(load());
+        } catch (Exception e) {
+            logger.error("加载密钥库失败，path:{}", properties.getPath(), e);
+        }
+    }
+
+    /**
+     * 重新加载密钥库，必要时生成或轮换密钥并写回；只在key-manager线程中执行
+     */
+    private void refresh() {
+        try {
+            merge(load());
+            long now = System.currentTimeMillis();
+            long rotationMs = TimeUnit.HOURS.toMillis(properties.getRotationHours());
+            if (active != null && (rotationMs <= 0 || now - active.getCreatedAt() < rotationMs)) {
+                return;
+            }
+            withLock(() -> {
+                // 加锁后再读一次，其他实例可能已经完成轮换
+                merge(load());
+                if (active != null && (rotationMs <= 0 || System.currentTimeMillis() - active.getCreatedAt() < rotationMs)) {
+                    return;
+                }
+                KeyEntry entry = generate();
+                // 写入成功后才对外提供，否则其他实例和重启后都没有这个密钥
+                List<KeyEntry> entries = new ArrayList<>(keys.values());
+                entries.add(entry);
+                save(entries);
+                merge(Collections.singletonList(entry));
+                logger.info("生成新的RSA密钥，keyId:{}, keySize:{}", entry.getKeyId(), properties.getKeySize());
+            });
+        } catch (Exception e) {
+            logger.error("刷新密钥库失败，path:{}", properties.getPath(), e);
+        }
+    }
+
+    /**
+     * 合并密钥库中的密钥并清理过期密钥，以最新生成的密钥作为当前密钥
+     */
+    private synchronized void merge(List<KeyEntry> loaded) {
+        long now = System.currentTimeMillis();
+        for (KeyEntry entry : loaded) {
+            keys.putIfAbsent(entry.getKeyId(), entry);
+        }
+        KeyEntry newest = keys.values().stream().max(Comparator.comparingLong(KeyEntry::getCreatedAt)).orElse(null);
+        if (newest != null) {
+            active = newest;
+            ready.complete(null);
+        }
+        keys.values().removeIf(entry -> isExpired(entry, now));
+    }
+
+    /**
+     * 被新密钥取代且超过重叠期的密钥视为过期
+     */
+    private boolean isExpired(KeyEntry entry, long now) {
+        long rotationMs = TimeUnit.HOURS.toMillis(properties.getRotationHours());
+        if (rotationMs <= 0) {
+            return false;
+        }
+        long overlapMs = TimeUnit.HOURS.toMillis(properties.getOverlapHours());
+        KeyEntry current = active;
+        return current != null && current != entry && entry.getCreatedAt() < current.getCreatedAt()
+                && now - current.getCreatedAt() > overlapMs;
+    }
+
+    private KeyEntry generate() {
+        Map<String, String> keyMap = RSAUtils.createKeys(properties.getKeySize());
+        KeyEntry entry = new KeyEntry();
+        entry.setKeyId(UUID.randomUUID().toString().replace("-", "").substring(0, 16));
+        entry.setPublicKey(keyMap.get("publicKey"));
+        entry.setPrivateKey(keyMap.get("privateKey"));
+        entry.setCreatedAt(System.currentTimeMillis());
+        return entry;
+    }
+
+    private boolean isHdfs() {
+        return properties.getPath().startsWith("hdfs");
+    }
+
+    private List<KeyEntry> load() throws IOException {
+        String json;
+        if (isHdfs()) {
+            if (!hdfsRouter.getDefault().checkExists(properties.getPath())) {
+                return new ArrayList<>();
+            }
+            json = hdfsRouter.getDefault().openWithString(properties.getPath());
+            if (json == null) {
+                throw new IOException("读取HDFS密钥库失败");
+            }
+        } else {
+            Path file = Paths.get(properties.getPath());
+            if (!Files.exists(file)) {
+                return new ArrayList<>();
+            }
+            json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        }
+        List<KeyEntry> entries = JSON.parseArray(json, KeyEntry.class);
+        return entries == null ? new ArrayList<>() : entries;
+    }
+
+    /**
+     * 先写临时文件再替换，避免其他实例读到写了一半的密钥库；密钥库只允许属主读写
+     */
+    private void save(List<KeyEntry> entries) throws IOException {
+        entries.sort(Comparator.comparingLong(KeyEntry::getCreatedAt));
+        byte[] json = JSON.toJSONString(entries).getBytes(StandardCharsets.UTF_8);
+        if (isHdfs()) {
+            try (HdfsOperations.FileSystemLease lease = hdfsRouter.getDefault().leaseFileSystem()) {
+                FileSystem fs = lease.get();
+                org.apache.hadoop.fs.Path target = new org.apache.hadoop.fs.Path(properties.getPath());
+                org.apache.hadoop.fs.Path tmp = new org.apache.hadoop.fs.Path(target.getParent(), target.getName() + ".tmp");
+                try (FSDataOutputStream out = create(fs, tmp, true)) {
+                    out.write(json);
+                }
+                if (fs instanceof DistributedFileSystem) {
+                    ((DistributedFileSystem) fs).rename(tmp, target, Options.Rename.OVERWRITE);
+                } else {
+                    fs.delete(target, false);
+                    if (!fs.rename(tmp, target)) {
+                        throw new IOException("替换HDFS密钥库失败");
+                    }
+                }
+            }
+            return;
+        }
+        Path file = Paths.get(properties.getPath()).toAbsolutePath();
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(tmp);
+        // 创建时即为0600，避免按umask创建后到修改权限之前私钥可被其他用户读取；非POSIX文件系统忽略
+        if (tmp.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(tmp, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        }
+        Files.write(tmp, json);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 本地密钥库通过文件锁避免多个实例同时轮换，HDFS密钥库使用不覆盖创建的锁文件
+     */
+    private void withLock(IoAction action) throws IOException {
+        if (isHdfs()) {
+            try (HdfsOperations.FileSystemLease lease = hdfsRouter.getDefault().leaseFileSystem()) {
+                withHdfsLock(lease.get(), action);
+            }
+            return;
+        }
+        File lockFile = Paths.get(properties.getPath() + ".lock").toAbsolutePath().toFile();
+        lockFile.getParentFile().mkdirs();
+        try (RandomAccessFile raf = new RandomAccessFile(lockFile, "rw");
+             FileChannel channel = raf.getChannel();
+             FileLock lock = channel.lock()) {
+            action.run();
+        }
+    }
+
+    /**
+     * create(overwrite=false)在NameNode上是原子的，创建成功即持有锁。持有者崩溃后锁文件不会自动删除，
+     * 锁文件在租约时间内没有变化时视为失效并强制删除；按本地时钟观察，不受NameNode时钟偏差影响
+     */
+    private void withHdfsLock(FileSystem fs, IoAction action) throws IOException {
+        org.apache.hadoop.fs.Path lock = new org.apache.hadoop.fs.Path(properties.getPath() + ".lock");
+        byte[] owner = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        long start = System.currentTimeMillis();
+        long seenModification = -1;
+        long seenAt = start;
+        while (true) {
+            try (FSDataOutputStream out = create(fs, lock, false)) {
+                out.write(owner);
+                break;
+            } catch (IOException e) {
+                // 文件已存在时NameNode返回FileAlreadyExistsException，持有者仍在写入时返回AlreadyBeingCreatedException
+                if (!(e instanceof FileAlreadyExistsException) && !fs.exists(lock)) {
+                    throw e;
+                }
+            }
+            long now = System.currentTimeMillis();
+            FileStatus status;
+            try {
+                status = fs.getFileStatus(lock);
+            } catch (FileNotFoundException e) {
+                continue;
+            }
+            if (status.getModificationTime() != seenModification) {
+                seenModification = status.getModificationTime();
+                seenAt = now;
+            } else if (now - seenAt > LOCK_LEASE_MS) {
+                logger.warn("HDFS密钥库锁超过{}ms未释放，强制删除，path:{}", LOCK_LEASE_MS, lock);
+                fs.delete(lock, false);
+                continue;
+            }
+            if (now - start > LOCK_LEASE_MS * 2) {
+                throw new IOException("等待HDFS密钥库锁超时:" + lock);
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(LOCK_RETRY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待HDFS密钥库锁被中断");
+            }
+        }
+        try {
+            action.run();
+        } finally {
+            // 超过租约后锁可能已被其他实例接管，只删除自己的锁
+            try (FSDataInputStream in = fs.open(lock)) {
+                if (Arrays.equals(IOUtils.toByteArray(in), owner)) {
+                    fs.delete(lock, false);
+                } else {
+                    logger.warn("HDFS密钥库锁已被其他实例接管，path:{}", lock);
+                }
+            } catch (IOException e) {
+                logger.error("释放HDFS密钥库锁失败，path:{}", lock, e);
+            }
+        }
+    }
+
+    private static FSDataOutputStream create(FileSystem fs, org.apache.hadoop.fs.Path path, boolean overwrite)
+            throws IOException {
+        return fs.create(path, KEY_FILE_PERMISSION, overwrite, 4096, fs.getDefaultReplication(path),
+                fs.getDefaultBlockSize(path), null);
+    }
+
+    private interface IoAction {
+        void run() throws IOException;
+    }
+
+    /**
+     * 带版本号的RSA密钥对
+     */
+    @Data
+    public static class KeyEntry {
+        private String keyId;
+        private String publicKey;
+        private String privateKey;
+        private long createdAt;
+        /**
+         * 解析后的私钥，避免每次解密都重新解析
+         */
+        @JSONField(serialize = false, deserialize = false)
+        private transient volatile RSAPrivateKey parsedPrivateKey;
+
+        public RSAPrivateKey privateKey() throws GeneralSecurityException {
+            RSAPrivateKey key = parsedPrivateKey;
+            if (key == null) {
+                key = RSAUtils.getPrivateKey(privateKey);
+                parsedPrivateKey = key;
+            }
+            return key;
+        }
+    }
+}
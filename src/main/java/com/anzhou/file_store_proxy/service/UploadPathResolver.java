@@ -0,0 +1,69 @@
+package com.anzhou.file_store_proxy.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ *@author pengpan
+ *@description 上传文件在HDFS上的存放目录
+ *@date 09:40 2026/10/20
+ */
+@Component
+public class UploadPathResolver {
+
+    @Value("${hdfsPath}")
+    private String hdfsPath;
+
+    /**
+     * 当天的上传分区目录，比如：/test/2109/20260101
+     */
+    public String partitionDir() {
+        return resolve("2109/" + dateToStr());
+    }
+
+    /**
+     * 预热时写入临时文件的目录
+     */
+    public String warmupDir() {
+        return resolve(".warmup");
+    }
+
+    /**
+     * 将相对hdfsPath的文件路径转换为HDFS相对路径，禁止访问hdfsPath之外的文件
+     *
+     * @param relative 相对路径，比如：2109/20260101/a.txt
+     */
+    public String resolveFile(String relative) {
+        String child = relative.replaceFirst("^/+", "");
+        for (String segment : child.split("/")) {
+            if (segment.equals("..") || segment.equals(".")) {
+                throw new IllegalArgumentException("路径不合法:" + relative);
+            }
+        }
+        if (child.isEmpty()) {
+            throw new IllegalArgumentException("路径不能为空");
+        }
+        return resolve(child);
+    }
+
+    private String resolve(String child) {
+        if (hdfsPath.endsWith("/")) {
+            return hdfsPath + child;
+        } else {
+            return hdfsPath + "/" + child;
+        }
+    }
+
+    /****
+     * 日期转换字符串
+     * @return
+     */
+    private String dateToStr() {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd");
+        String dateTime = dateFormat.format(new Date());
+        return dateTime;
+    }
+}
@@ -0,0 +1,107 @@
+package com.anzhou.file_store_proxy.service;
+
+import com.anzhou.file_store_proxy.config.HdfsOperations;
+import com.anzhou.file_store_proxy.config.HdfsRouter;
+import com.anzhou.file_store_proxy.util.RSAUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Map;
+
+/**
+ *@author pengpan
+ *@description 启动预热：在应用对外报告就绪之前创建HDFS客户端、准备分区目录，并用临时文件走一遍解密和写入流程，
+ * 使类加载、JCE初始化、DFSClient初始化和JIT编译不落在线上请求上。
+ * ApplicationRunner执行完成后Spring Boot才会把readiness状态置为ACCEPTING_TRAFFIC
+ *@date 09:40 2026/10/20
+ */
+@Component
+public class WarmupRunner implements ApplicationRunner {
+
+    private Logger logger = LoggerFactory.getLogger(WarmupRunner.class);
+
+    @Autowired
+    HdfsRouter hdfsRouter;
+    @Autowired
+    KeyManager keyManager;
+    @Autowired
+    UploadPathResolver uploadPathResolver;
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+    /**
+     * 解密流程的执行次数，次数足够多才能触发JIT编译
+     */
+    @Value("${warmup.iterations:100}")
+    private int iterations;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        byte[] sample = warmUpDecrypt();
+        String partitionDir = uploadPathResolver.partitionDir();
+        String warmupDir = uploadPathResolver.warmupDir();
+        String scratchName = scratchName();
+        for (Map.Entry<String, HdfsOperations> entry : hdfsRouter.getClusters().entrySet()) {
+            String name = entry.getKey();
+            HdfsOperations hdfsOperations = entry.getValue();
+            if (!hdfsOperations.warmUp()) {
+                logger.warn("预热HDFS集群[{}]失败", name);
+                hdfsRouter.markFailed(name);
+                continue;
+            }
+            hdfsOperations.mkdir(partitionDir);
+            if (sample != null && hdfsOperations.mkdir(warmupDir)) {
+                hdfsOperations.uploadFileToHdfsByFlow(true, new ByteArrayInputStream(sample), warmupDir, scratchName);
+                hdfsOperations.delete(warmupDir + "/" + scratchName);
+            }
+        }
+        logger.info("预热完成，耗时{}ms", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 用当前密钥反复加解密样本数据，返回解密结果供写入流程使用
+     */
+    private byte[] warmUpDecrypt() {
+        try {
+            KeyManager.KeyEntry key = keyManager.current();
+            RSAPublicKey publicKey = RSAUtils.getPublicKey(key.getPublicKey());
+            RSAPrivateKey privateKey = key.privateKey();
+            byte[] plain = new byte[4096];
+            for (int i = 0; i < plain.length; i++) {
+                plain[i] = (byte) i;
+            }
+            byte[] encrypted = RSAUtils.publicEncrypt(plain, publicKey);
+            byte[] decrypted = null;
+            for (int i = 0; i < iterations; i++) {
+                decrypted = RSAUtils.privateDecrypt(encrypted, privateKey);
+            }
+            return decrypted;
+        } catch (Exception e) {
+            logger.error("预热解密流程失败", e);
+            return null;
+        }
+    }
+
+    private String scratchName() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return "warmup-" + host + "-" + System.currentTimeMillis() + ".tmp";
+    }
+}
@@ -0,0 +1,76 @@
+package com.anzhou.file_store_proxy.trace;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ *@author pengpan
+ *@description 常驻的JFR环形录制，保留最近一段时间的数据，出现长尾请求时可直接导出分析，无需挂载profiler
+ *@date 15:00 2026/10/20
+ */
+public class FlightRecording {
+
+    /**
+     * default配置中会记录进程启动参数、系统属性和环境变量，其中可能包含密码等敏感信息，导出前不录制
+     */
+    private static final String[] SENSITIVE_EVENTS = {
+            "jdk.InitialSystemProperty", "jdk.InitialEnvironmentVariable", "jdk.JVMInformation"};
+
+    private Logger logger = LoggerFactory.getLogger(FlightRecording.class);
+
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private final Duration threshold;
+    private Recording recording;
+
+    public FlightRecording(Duration maxAge, long maxSizeBytes, Duration threshold) {
+        this.maxAge = maxAge;
+        this.maxSizeBytes = maxSizeBytes;
+        this.threshold = threshold;
+    }
+
+    public void start() throws IOException, ParseException {
+        recording = new Recording(Configuration.getConfiguration("default"));
+        recording.setName("file-store-proxy");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        for (String event : SENSITIVE_EVENTS) {
+            recording.disable(event);
+        }
+        recording.enable(UploadStageEvent.class).withThreshold(threshold);
+        recording.enable(HdfsOperationEvent.class).withThreshold(threshold);
+        recording.start();
+        logger.info("JFR录制已启动，maxAge:{}, maxSize:{}", maxAge, maxSizeBytes);
+    }
+
+    public void close() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    /**
+     * 导出当前JVM中所有录制（包括-XX:StartFlightRecording启动的录制）的快照
+     *
+     * @param target 导出文件
+     * @return boolean 是否有可导出的数据
+     */
+    public static boolean dump(Path target) throws IOException {
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            if (snapshot.getSize() == 0) {
+                return false;
+            }
+            snapshot.dump(target);
+            return true;
+        }
+    }
+}
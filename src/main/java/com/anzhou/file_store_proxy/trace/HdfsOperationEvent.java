@@ -0,0 +1,19 @@
+package com.anzhou.file_store_proxy.trace;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ *@author pengpan
+ *@description 单次HdfsOperations调用的JFR事件
+ *@date 15:00 2026/10/20
+ */
+@Name("com.anzhou.file_store_proxy.HdfsOperation")
+@Label("HDFS Operation")
+@Description("HdfsOperations单次调用的耗时")
+class HdfsOperationEvent extends ProxyEvent {
+
+    @Label("Cluster")
+    String cluster;
+}
@@ -0,0 +1,47 @@
+package com.anzhou.file_store_proxy.trace;
+
+/**
+ *@author pengpan
+ *@description Span使用的JFR事件操作，仅在JfrSupport.isAvailable()时加载
+ *@date 15:00 2026/10/20
+ */
+final class JfrEvents {
+
+    private JfrEvents() {
+    }
+
+    /**
+     * 创建事件并开始计时
+     *
+     * @param kind    stage或hdfs
+     * @param cluster HDFS调用的集群地址
+     */
+    static Object begin(String kind, String cluster) {
+        ProxyEvent event;
+        if (!"hdfs".equals(kind)) {
+            event = new UploadStageEvent();
+        } else {
+            HdfsOperationEvent hdfsEvent = new HdfsOperationEvent();
+            hdfsEvent.cluster = cluster;
+            event = hdfsEvent;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 结束计时，事件开启且超过阈值时提交
+     */
+    static void commit(Object handle, String requestId, String name, String path, long bytes, String outcome) {
+        ProxyEvent event = (ProxyEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.requestId = requestId;
+            event.name = name;
+            event.path = path;
+            event.bytes = bytes;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+}
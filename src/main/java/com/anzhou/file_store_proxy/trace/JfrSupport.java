@@ -0,0 +1,28 @@
+package com.anzhou.file_store_proxy.trace;
+
+/**
+ *@author pengpan
+ *@description 判断当前JVM是否支持JFR（JDK 8u262及以上），本类不引用jdk.jfr，
+ * 不支持时不会加载任何依赖jdk.jfr的类
+ *@date 15:00 2026/10/20
+ */
+public final class JfrSupport {
+
+    private static final boolean AVAILABLE = detect();
+
+    private JfrSupport() {
+    }
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    private static boolean detect() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder", false, JfrSupport.class.getClassLoader());
+            return true;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+}
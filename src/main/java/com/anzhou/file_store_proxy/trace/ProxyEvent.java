@@ -0,0 +1,31 @@
+package com.anzhou.file_store_proxy.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ *@author pengpan
+ *@description 代理JFR事件的公共字段
+ *@date 15:00 2026/10/20
+ */
+@Category({"File Store Proxy"})
+abstract class ProxyEvent extends Event {
+
+    @Label("Request Id")
+    String requestId;
+
+    @Label("Name")
+    String name;
+
+    @Label("Path")
+    String path;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Outcome")
+    String outcome;
+}
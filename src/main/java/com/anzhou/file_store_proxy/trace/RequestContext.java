@@ -0,0 +1,68 @@
+package com.anzhou.file_store_proxy.trace;
+
+import org.slf4j.MDC;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *@author pengpan
+ *@description 当前线程处理的请求ID及截止时间，请求ID写入MDC便于日志关联
+ *@date 15:00 2026/10/20
+ */
+public final class RequestContext {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    /**
+     * 客户端可接受的最长处理时间（毫秒）
+     */
+    public static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+    private static final String MDC_KEY = "requestId";
+    private static final ThreadLocal<String> REQUEST_ID = new ThreadLocal<>();
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private RequestContext() {
+    }
+
+    public static String getRequestId() {
+        return REQUEST_ID.get();
+    }
+
+    public static void setRequestId(String requestId) {
+        if (requestId == null) {
+            clear();
+            return;
+        }
+        REQUEST_ID.set(requestId);
+        MDC.put(MDC_KEY, requestId);
+    }
+
+    /**
+     * 设置当前请求的截止时间
+     *
+     * @param timeoutMs 从现在起的超时时间（毫秒）
+     */
+    public static void setTimeout(long timeoutMs) {
+        DEADLINE_NANOS.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+    }
+
+    /**
+     * 当前请求剩余时间（纳秒），未设置截止时间时返回Long.MAX_VALUE
+     */
+    public static long remainingNanos() {
+        Long deadline = DEADLINE_NANOS.get();
+        return deadline == null ? Long.MAX_VALUE : deadline - System.nanoTime();
+    }
+
+    /**
+     * 当前请求是否已超过截止时间
+     */
+    public static boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    public static void clear() {
+        REQUEST_ID.remove();
+        DEADLINE_NANOS.remove();
+        MDC.remove(MDC_KEY);
+    }
+}
@@ -0,0 +1,93 @@
+package com.anzhou.file_store_proxy.trace;
+
+/**
+ *@author pengpan
+ *@description 一次计时：结束时提交JFR事件，并在开启导出时写入本地span文件。
+ * JFR未开启对应事件时只有一次时间戳读取的开销，可以常驻开启；JVM不支持JFR时只做导出
+ *@date 15:00 2026/10/20
+ */
+public final class Span implements AutoCloseable {
+
+    private static final String OK = "ok";
+
+    private static volatile SpanExporter exporter;
+
+    /**
+     * JFR事件，JVM不支持JFR时为null；声明为Object，避免加载Span时依赖jdk.jfr
+     */
+    private final Object event;
+    private final String kind;
+    private final String requestId;
+    private final String name;
+    private final String path;
+    private final long startMillis;
+    private final long startNanos;
+    private long bytes;
+    private String outcome = OK;
+    private boolean closed;
+
+    private Span(String kind, String cluster, String name, String path) {
+        this.kind = kind;
+        this.requestId = RequestContext.getRequestId();
+        this.name = name;
+        this.path = path;
+        this.startMillis = exporter == null ? 0 : System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+        this.event = JfrSupport.isAvailable() ? JfrEvents.begin(kind, cluster) : null;
+    }
+
+    /**
+     * 上传流程阶段
+     *
+     * @param stage 阶段名称，比如：decrypt
+     * @param path  相关路径，可为null
+     */
+    public static Span stage(String stage, String path) {
+        return new Span("stage", null, stage, path);
+    }
+
+    /**
+     * HdfsOperations调用
+     *
+     * @param cluster   集群地址
+     * @param operation 操作名称，比如：mkdir
+     * @param path      HDFS的相对路径
+     */
+    public static Span hdfs(String cluster, String operation, String path) {
+        return new Span("hdfs", cluster, operation, path);
+    }
+
+    static void setExporter(SpanExporter spanExporter) {
+        exporter = spanExporter;
+    }
+
+    public Span bytes(long bytes) {
+        this.bytes = bytes;
+        return this;
+    }
+
+    public Span fail(String reason) {
+        outcome = reason == null ? "error" : reason;
+        return this;
+    }
+
+    public Span fail(Throwable e) {
+        return fail(e.getClass().getSimpleName());
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (event != null) {
+            JfrEvents.commit(event, requestId, name, path, bytes, outcome);
+        }
+        SpanExporter current = exporter;
+        if (current != null) {
+            current.export(kind, name, requestId, path, bytes, outcome,
+                    startMillis, (System.nanoTime() - startNanos) / 1000);
+        }
+    }
+}
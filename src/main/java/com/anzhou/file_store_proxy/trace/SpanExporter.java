@@ -0,0 +1,100 @@
+package com.anzhou.file_store_proxy.trace;
+
+import com.alibaba.fastjson.JSON;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *@author pengpan
+ *@description 将span以JSON行的形式异步写入本地文件，队列满时直接丢弃，不阻塞业务线程
+ *@date 15:00 2026/10/20
+ */
+public class SpanExporter {
+
+    private Logger logger = LoggerFactory.getLogger(SpanExporter.class);
+
+    private final Path file;
+    private final BlockingQueue<String> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running = true;
+    private final Thread writer;
+
+    public SpanExporter(String path, int queueSize) {
+        this.file = Paths.get(path);
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.writer = new Thread(this::writeLoop, "span-exporter");
+        this.writer.setDaemon(true);
+    }
+
+    public void start() {
+        writer.start();
+        Span.setExporter(this);
+    }
+
+    public void close() {
+        Span.setExporter(null);
+        running = false;
+        writer.interrupt();
+    }
+
+    void export(String kind, String name, String requestId, String path, long bytes, String outcome,
+                long startMillis, long durationMicros) {
+        Map<String, Object> span = new LinkedHashMap<>();
+        span.put("requestId", requestId);
+        span.put("kind", kind);
+        span.put("name", name);
+        span.put("path", path);
+        span.put("bytes", bytes);
+        span.put("outcome", outcome);
+        span.put("start", startMillis);
+        span.put("durationMicros", durationMicros);
+        if (!queue.offer(JSON.toJSONString(span))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+        } catch (IOException e) {
+            logger.error("创建span导出目录失败，path:{}", file, e);
+            return;
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            while (running) {
+                String line = queue.poll(1, TimeUnit.SECONDS);
+                if (line == null) {
+                    out.flush();
+                    continue;
+                }
+                out.write(line);
+                out.newLine();
+                long lost = dropped.getAndSet(0);
+                if (lost > 0) {
+                    logger.warn("span导出队列已满，丢弃{}条", lost);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("写入span文件失败，path:{}", file, e);
+        }
+    }
+}
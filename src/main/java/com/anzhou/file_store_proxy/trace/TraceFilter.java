@@ -0,0 +1,54 @@
+package com.anzhou.file_store_proxy.trace;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ *@author pengpan
+ *@description 为每个请求分配请求ID（优先使用客户端传入的X-Request-Id），并在响应头中返回；
+ * 客户端通过X-Request-Timeout-Ms传入的截止时间会传递给HDFS调用
+ *@date 15:00 2026/10/20
+ */
+public class TraceFilter extends OncePerRequestFilter {
+
+    private static final int MAX_REQUEST_ID_LENGTH = 64;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String requestId = request.getHeader(RequestContext.REQUEST_ID_HEADER);
+        if (requestId == null || requestId.isEmpty() || requestId.length() > MAX_REQUEST_ID_LENGTH) {
+            requestId = UUID.randomUUID().toString().replace("-", "");
+        }
+        response.setHeader(RequestContext.REQUEST_ID_HEADER, requestId);
+        RequestContext.setRequestId(requestId);
+        String timeout = request.getHeader(RequestContext.REQUEST_TIMEOUT_HEADER);
+        if (timeout != null) {
+            try {
+                RequestContext.setTimeout(Long.parseLong(timeout.trim()));
+            } catch (NumberFormatException e) {
+                // 忽略非法的超时时间
+            }
+        }
+        try (Span span = Span.stage("request", request.getRequestURI())) {
+            span.bytes(request.getContentLengthLong());
+            try {
+                chain.doFilter(request, response);
+            } catch (IOException | ServletException | RuntimeException e) {
+                span.fail(e);
+                throw e;
+            }
+            if (response.getStatus() >= 400) {
+                span.fail("status " + response.getStatus());
+            }
+        } finally {
+            RequestContext.clear();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.anzhou.file_store_proxy.trace;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ *@author pengpan
+ *@description 上传流程各阶段（解析multipart、密钥查找、读取分片、RSA解密、写入HDFS）的JFR事件
+ *@date 15:00 2026/10/20
+ */
+@Name("com.anzhou.file_store_proxy.UploadStage")
+@Label("Upload Stage")
+@Description("上传流程中单个阶段的耗时")
+class UploadStageEvent extends ProxyEvent {
+}
@@ -0,0 +1,139 @@
+package com.anzhou.file_store_proxy.util;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.OAEPParameterSpec;
+import javax.crypto.spec.PSource;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.MGF1ParameterSpec;
+
+/**
+ * 分帧的AES-GCM流式加密，内存占用只与帧大小有关，与文件大小无关
+ * <p>
+ * 输出格式（整数均为大端）：
+ * <pre>
+ * magic "FSPE" | version(1字节)=1 | chunkSize(int) | wrappedKeyLength(int) | wrappedKey | noncePrefix(4字节)
+ * frame*: length(int) | ciphertext+tag
+ * </pre>
+ * wrappedKey为随机AES-256密钥经客户端公钥RSA-OAEP加密的结果，摘要和MGF1均为SHA-256、label为空
+ * （JCE的OAEPWithSHA-256AndMGF1Padding默认MGF1使用SHA-1，因此显式指定参数，客户端需按OAEP_PARAMETERS解密）；
+ * 第n帧（从0开始）的nonce为 noncePrefix || n(8字节)，AAD为 n(8字节) || last(1字节)。
+ * 最后一帧的last为1（可以为空帧），客户端必须校验收到last帧，防止数据被截断
+ */
+public class AesGcmStreams {
+
+    public static final byte[] MAGIC = "FSPE".getBytes(StandardCharsets.US_ASCII);
+    public static final byte VERSION = 1;
+    public static final String KEY_WRAP_ALGORITHM = "RSA/ECB/OAEPWithSHA-256AndMGF1Padding";
+    public static final OAEPParameterSpec OAEP_PARAMETERS = new OAEPParameterSpec("SHA-256", "MGF1",
+            MGF1ParameterSpec.SHA256, PSource.PSpecified.DEFAULT);
+    /**
+     * 客户端公钥最小长度
+     */
+    public static final int MIN_KEY_BITS = 2048;
+    private static final String CIPHER_ALGORITHM = "AES/GCM/NoPadding";
+    private static final int KEY_BITS = 256;
+    private static final int TAG_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * 校验客户端公钥，长度不足MIN_KEY_BITS时抛出IllegalArgumentException
+     */
+    public static void checkPublicKey(RSAPublicKey publicKey) {
+        int bits = publicKey.getModulus().bitLength();
+        if (bits < MIN_KEY_BITS) {
+            throw new IllegalArgumentException("公钥长度不足" + MIN_KEY_BITS + "位:" + bits);
+        }
+    }
+
+    /**
+     * 使用客户端公钥加密输入流并写入输出流
+     *
+     * @param in        明文输入流
+     * @param out       密文输出流
+     * @param publicKey 客户端公钥，长度至少MIN_KEY_BITS
+     * @param chunkSize 每帧明文大小，必须大于0
+     * @return 明文总字节数
+     */
+    public static long encrypt(InputStream in, OutputStream out, RSAPublicKey publicKey, int chunkSize)
+            throws IOException, GeneralSecurityException {
+        // chunkSize为0时永远不会出现last帧，会无限输出空帧
+        if (chunkSize <= 0 || chunkSize > Integer.MAX_VALUE - TAG_BITS / 8) {
+            throw new IllegalArgumentException("chunkSize不合法:" + chunkSize);
+        }
+        checkPublicKey(publicKey);
+        KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(KEY_BITS, RANDOM);
+        SecretKey key = keyGenerator.generateKey();
+
+        Cipher wrapper = Cipher.getInstance(KEY_WRAP_ALGORITHM);
+        wrapper.init(Cipher.WRAP_MODE, publicKey, OAEP_PARAMETERS);
+        byte[] wrappedKey = wrapper.wrap(key);
+        byte[] noncePrefix = new byte[4];
+        RANDOM.nextBytes(noncePrefix);
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(chunkSize);
+        data.writeInt(wrappedKey.length);
+        data.write(wrappedKey);
+        data.write(noncePrefix);
+
+        Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+        byte[] plain = new byte[chunkSize];
+        byte[] encrypted = new byte[chunkSize + TAG_BITS / 8];
+        long counter = 0;
+        long total = 0;
+        while (true) {
+            int read = readChunk(in, plain);
+            // 读满一帧时无法确定是否为最后一帧，最后补一个空的last帧
+            boolean last = read < chunkSize;
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, nonce(noncePrefix, counter)));
+            cipher.updateAAD(aad(counter, last));
+            int length = cipher.doFinal(plain, 0, read, encrypted, 0);
+            data.writeInt(length);
+            data.write(encrypted, 0, length);
+            total += read;
+            counter++;
+            if (last) {
+                break;
+            }
+        }
+        data.flush();
+        return total;
+    }
+
+    /**
+     * 尽量读满buffer，返回实际读取的字节数，小于buffer长度表示已到流末尾
+     */
+    private static int readChunk(InputStream in, byte[] buffer) throws IOException {
+        int offset = 0;
+        while (offset < buffer.length) {
+            int read = in.read(buffer, offset, buffer.length - offset);
+            if (read == -1) {
+                break;
+            }
+            offset += read;
+        }
+        return offset;
+    }
+
+    private static byte[] nonce(byte[] prefix, long counter) {
+        return ByteBuffer.allocate(12).put(prefix).putLong(counter).array();
+    }
+
+    private static byte[] aad(long counter, boolean last) {
+        return ByteBuffer.allocate(9).putLong(counter).put((byte) (last ? 1 : 0)).array();
+    }
+}
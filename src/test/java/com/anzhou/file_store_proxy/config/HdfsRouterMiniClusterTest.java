@@ -0,0 +1,163 @@
+package com.anzhou.file_store_proxy.config;
+
+import com.anzhou.file_store_proxy.trace.RequestContext;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hdfs.MiniDFSCluster;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 两个本地MiniDFSCluster上的路由、写入切换及读取定位
+ */
+class HdfsRouterMiniClusterTest {
+
+    @TempDir
+    static File baseDir;
+    private static MiniDFSCluster primary;
+    private static MiniDFSCluster backup;
+    private static HdfsRouter router;
+
+    @BeforeAll
+    static void startClusters() throws IOException {
+        primary = start("primary");
+        backup = start("backup");
+        Map<String, HdfsOperations> clusters = new LinkedHashMap<>();
+        clusters.put("primary", operations(primary));
+        clusters.put("backup", operations(backup));
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        weights.put("primary", 1);
+        weights.put("backup", 1);
+        HdfsProperties.Mount mount = new HdfsProperties.Mount();
+        mount.setPrefix("/test/tenantA");
+        mount.setClusters(new ArrayList<>(Arrays.asList("primary", "backup")));
+        router = new HdfsRouter(clusters, weights, Collections.singletonList(mount), 30000);
+    }
+
+    @AfterAll
+    static void stopClusters() {
+        if (router != null) {
+            router.close();
+        }
+        if (primary != null) {
+            primary.shutdown();
+        }
+        if (backup != null) {
+            backup.shutdown();
+        }
+    }
+
+    @Test
+    void routesWritesAndFailsOverWhenClusterIsDown() throws IOException {
+        // 未命中挂载点的路径写入一致性哈希的首选集群
+        String hashed = "/test/2109/20260101/a.txt";
+        String expected = router.candidates(hashed).get(0);
+        assertEquals(expected, write(hashed));
+        assertTrue(cluster(expected).getFileSystem().exists(new Path(hashed)));
+        assertSame(router.get(expected), router.locate(hashed));
+
+        // 挂载点的主集群
+        assertEquals("primary", write("/test/tenantA/b.txt"));
+        assertTrue(primary.getFileSystem().exists(new Path("/test/tenantA/b.txt")));
+        assertFalse(backup.getFileSystem().exists(new Path("/test/tenantA/b.txt")));
+
+        // 写入中途失败时删除主集群上不完整的文件，读取定位到备选集群上的完整副本
+        AtomicInteger attempts = new AtomicInteger();
+        String partial = "/test/tenantA/d.txt";
+        String written = router.write(partial, ops -> ops.mkdir("/test/tenantA") && ops.uploadFileToHdfsByFlow(true,
+                attempts.getAndIncrement() == 0 ? failingStream() : new ByteArrayInputStream(new byte[16]),
+                "/test/tenantA", "d.txt"));
+        assertEquals("backup", written);
+        assertFalse(primary.getFileSystem().exists(new Path(partial)));
+        assertSame(router.get("backup"), router.locate(partial));
+
+        // 主集群停止后切换到备选集群，读取时仍能定位到
+        primary.shutdown();
+        assertEquals("backup", write("/test/tenantA/c.txt"));
+        assertFalse(router.isHealthy("primary"));
+        assertTrue(backup.getFileSystem().exists(new Path("/test/tenantA/c.txt")));
+        assertSame(router.get("backup"), router.locate("/test/tenantA/c.txt"));
+    }
+
+    @Test
+    void openedStreamStopsReadingAfterRequestDeadline() throws Exception {
+        String path = "/test/deadline.txt";
+        try (OutputStream out = backup.getFileSystem().create(new Path(path))) {
+            out.write(new byte[16]);
+        }
+        RequestContext.setTimeout(500);
+        try (FSDataInputStream in = router.get("backup").open(path)) {
+            assertNotNull(in);
+            assertEquals(0, in.read());
+            Thread.sleep(600);
+            assertThrows(InterruptedIOException.class, in::read);
+        } finally {
+            RequestContext.clear();
+        }
+    }
+
+    private static String write(String path) {
+        String dir = path.substring(0, path.lastIndexOf('/'));
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        byte[] data = path.getBytes(StandardCharsets.UTF_8);
+        return router.write(path, ops -> ops.mkdir(dir)
+                && ops.uploadFileToHdfsByFlow(true, new ByteArrayInputStream(data), dir, name));
+    }
+
+    /**
+     * 读出部分数据后失败的输入流
+     */
+    private static InputStream failingStream() {
+        return new SequenceInputStream(new ByteArrayInputStream(new byte[8]), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("client disconnected");
+            }
+        });
+    }
+
+    private static MiniDFSCluster cluster(String name) {
+        return "primary".equals(name) ? primary : backup;
+    }
+
+    private static MiniDFSCluster start(String name) throws IOException {
+        Configuration conf = new Configuration();
+        conf.set(MiniDFSCluster.HDFS_MINIDFS_BASEDIR, new File(baseDir, name).getAbsolutePath());
+        return new MiniDFSCluster.Builder(conf).numDataNodes(1).build();
+    }
+
+    private static HdfsOperations operations(MiniDFSCluster cluster) {
+        String uri = cluster.getURI().toString();
+        Configuration conf = new Configuration();
+        conf.set("fs.defaultFS", uri);
+        // 集群停止后立即失败，不做连接重试
+        conf.setInt("ipc.client.connect.max.retries", 0);
+        conf.setInt("ipc.client.connect.max.retries.on.timeouts", 0);
+        return new HdfsOperations(conf, uri);
+    }
+}
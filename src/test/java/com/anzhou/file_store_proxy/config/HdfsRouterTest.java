@@ -0,0 +1,195 @@
+package com.anzhou.file_store_proxy.config;
+
+import com.anzhou.file_store_proxy.trace.RequestContext;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.security.AccessControlException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HdfsRouterTest {
+
+    /**
+     * 各集群上已存在的路径，格式：集群名称:路径
+     */
+    private final Set<String> existing = new HashSet<>();
+
+    @Test
+    void candidatesAreStableAndCoverAllClusters() {
+        HdfsRouter router = router(weights("a", 1, "b", 1, "c", 1));
+        for (int i = 0; i < 100; i++) {
+            String path = "/test/2109/20260101/" + i + ".txt";
+            List<String> names = router.candidates(path);
+            assertEquals(names, router.candidates(path));
+            List<String> sorted = new ArrayList<>(names);
+            Collections.sort(sorted);
+            assertEquals(Arrays.asList("a", "b", "c"), sorted);
+        }
+    }
+
+    @Test
+    void weightsControlShareOfNewUploads() {
+        HdfsRouter router = router(weights("a", 3, "b", 1));
+        int first = 0;
+        int total = 4000;
+        for (int i = 0; i < total; i++) {
+            if ("a".equals(router.candidates("/test/" + i).get(0))) {
+                first++;
+            }
+        }
+        double share = first / (double) total;
+        assertTrue(share > 0.70 && share < 0.80, "share:" + share);
+    }
+
+    @Test
+    void addingClusterOnlyMovesPathsToNewCluster() {
+        HdfsRouter before = router(weights("a", 1, "b", 1));
+        HdfsRouter after = router(weights("a", 1, "b", 1, "c", 1));
+        int moved = 0;
+        for (int i = 0; i < 1000; i++) {
+            String path = "/test/" + i;
+            String was = before.candidates(path).get(0);
+            String now = after.candidates(path).get(0);
+            if (!was.equals(now)) {
+                assertEquals("c", now);
+                moved++;
+            }
+        }
+        assertTrue(moved > 0);
+    }
+
+    @Test
+    void drainedClusterIsLastResort() {
+        HdfsRouter router = router(weights("old", 0, "a", 1, "b", 1));
+        for (int i = 0; i < 100; i++) {
+            List<String> names = router.candidates("/test/" + i);
+            assertEquals(3, names.size());
+            assertEquals("old", names.get(2));
+        }
+    }
+
+    @Test
+    void longestMountPrefixWins() {
+        HdfsRouter router = router(weights("a", 1, "b", 1),
+                mount("/test", "a"), mount("/test/tenantA", "b", "a"));
+        assertEquals(Arrays.asList("b", "a"), router.candidates("/test/tenantA/x.txt"));
+        assertEquals(Arrays.asList("b", "a"), router.candidates("/test/tenantA"));
+        // 只匹配完整的路径段
+        assertEquals(Collections.singletonList("a"), router.candidates("/test/tenantAB/x.txt"));
+        assertEquals(Collections.singletonList("a"), router.candidates("/test/x.txt"));
+        assertEquals(2, router.candidates("/other/x.txt").size());
+    }
+
+    @Test
+    void invalidMountsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> router(weights("a", 1), mount("/test")));
+        assertThrows(IllegalArgumentException.class, () -> router(weights("a", 1), mount("/test", "missing")));
+        assertThrows(IllegalArgumentException.class, () -> router(weights("a", 1), mount("", "a")));
+    }
+
+    @Test
+    void locateSearchesDrainedAndUnmountedClusters() {
+        HdfsRouter router = router(weights("a", 1, "old", 0), mount("/test/tenantA", "a"));
+        existing.add("old:/test/x.txt");
+        existing.add("old:/test/tenantA/y.txt");
+        assertSame(router.get("old"), router.locate("/test/x.txt"));
+        assertSame(router.get("old"), router.locate("/test/tenantA/y.txt"));
+        // 均不存在时返回首选集群
+        assertSame(router.get("a"), router.locate("/test/tenantA/z.txt"));
+    }
+
+    @Test
+    void locateChecksCoolingDownClustersLast() {
+        HdfsRouter router = router(weights("a", 1, "b", 1));
+        existing.add("a:/test/x.txt");
+        router.markFailed("a");
+        assertSame(router.get("a"), router.locate("/test/x.txt"));
+    }
+
+    @Test
+    void writeFailsOverInCandidateOrder() {
+        HdfsRouter router = router(weights("a", 1, "b", 1));
+        String path = "/test/x.txt";
+        List<String> names = router.candidates(path);
+        String preferred = names.get(0);
+        String written = router.write(path, ops -> ops != router.get(preferred));
+        assertEquals(names.get(1), written);
+        assertFalse(router.isHealthy(preferred));
+        assertTrue(router.isHealthy(written));
+    }
+
+    @Test
+    void expiredRequestDeadlineDoesNotTripClusters() {
+        HdfsRouter router = router(weights("a", 1, "b", 1));
+        RequestContext.setTimeout(0);
+        try {
+            assertNull(router.write("/test/x.txt", ops -> false));
+        } finally {
+            RequestContext.clear();
+        }
+        assertTrue(router.isHealthy("a"));
+        assertTrue(router.isHealthy("b"));
+    }
+
+    @Test
+    void pathFailureFailsOverWithoutTrippingCluster() {
+        HdfsRouter router = router(weights("a", 1, "b", 1));
+        String path = "/test/x.txt";
+        List<String> names = router.candidates(path);
+        String written = router.write(path, ops -> {
+            if (ops == router.get(names.get(0))) {
+                HdfsOperations.recordFailure(new AccessControlException("Permission denied"));
+                return false;
+            }
+            return true;
+        });
+        assertEquals(names.get(1), written);
+        assertTrue(router.isHealthy(names.get(0)));
+    }
+
+    private HdfsRouter router(Map<String, Integer> weights, HdfsProperties.Mount... mounts) {
+        Map<String, HdfsOperations> clusters = new LinkedHashMap<>();
+        for (String name : weights.keySet()) {
+            clusters.put(name, cluster(name));
+        }
+        return new HdfsRouter(clusters, weights, Arrays.asList(mounts), 30000);
+    }
+
+    private HdfsOperations cluster(String name) {
+        return new HdfsOperations(new Configuration(false), "hdfs://" + name) {
+            @Override
+            public boolean checkExists(String path) {
+                return existing.contains(name + ":" + path);
+            }
+        };
+    }
+
+    private static Map<String, Integer> weights(Object... nameAndWeight) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (int i = 0; i < nameAndWeight.length; i += 2) {
+            weights.put((String) nameAndWeight[i], (Integer) nameAndWeight[i + 1]);
+        }
+        return weights;
+    }
+
+    private static HdfsProperties.Mount mount(String prefix, String... clusters) {
+        HdfsProperties.Mount mount = new HdfsProperties.Mount();
+        mount.setPrefix(prefix);
+        mount.setClusters(new ArrayList<>(Arrays.asList(clusters)));
+        return mount;
+    }
+}
@@ -0,0 +1,60 @@
+package com.anzhou.file_store_proxy.filter;
+
+import com.anzhou.file_store_proxy.config.AdminProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AdminFilterTest {
+
+    private final AdminProperties properties = new AdminProperties();
+
+    @Test
+    void servesOnlyOnManagementPort() throws Exception {
+        assertEquals(200, filter(request(8082, null)).getStatus());
+        assertEquals(404, filter(request(8081, null)).getStatus());
+    }
+
+    @Test
+    void requiresTokenWhenConfigured() throws Exception {
+        properties.setToken("secret");
+        assertEquals(401, filter(request(8082, null)).getStatus());
+        assertEquals(401, filter(request(8082, "wrong")).getStatus());
+        assertEquals(200, filter(request(8082, "secret")).getStatus());
+    }
+
+    @Test
+    void withoutManagementPortRequiresToken() throws Exception {
+        properties.setPort(0);
+        assertEquals(404, filter(request(8081, null)).getStatus());
+        properties.setToken("secret");
+        assertEquals(401, filter(request(8081, null)).getStatus());
+        assertEquals(200, filter(request(8081, "secret")).getStatus());
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new AdminFilter(properties).doFilter(request, response, chain);
+        if (response.getStatus() == 200) {
+            assertNotNull(chain.getRequest());
+        } else {
+            assertNull(chain.getRequest());
+        }
+        return response;
+    }
+
+    private static MockHttpServletRequest request(int localPort, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/proxy/bulk/delete");
+        request.setLocalPort(localPort);
+        if (token != null) {
+            request.addHeader(AdminFilter.TOKEN_HEADER, token);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,156 @@
+package com.anzhou.file_store_proxy.filter;
+
+import com.anzhou.file_store_proxy.config.AdmissionProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import javax.servlet.FilterChain;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AdmissionFilterTest {
+
+    private final AdmissionProperties properties = new AdmissionProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.setMaxConcurrent(2);
+        properties.setMaxInflightBytes(DataSize.ofKilobytes(64));
+        properties.setPerClientMaxConcurrent(1);
+        properties.setPerClientMaxInflightBytes(DataSize.ofKilobytes(32));
+        properties.setQueueTimeoutMs(100);
+    }
+
+    @Test
+    void admitsRequestWithinBudgetAndReleasesIt() throws Exception {
+        AdmissionFilter filter = new AdmissionFilter(properties);
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(upload("10.0.0.1", 16 * 1024), response, chain);
+        assertNotNull(chain.getRequest());
+        assertEquals(200, response.getStatus());
+        Map<String, Object> stats = filter.stats();
+        assertEquals(2, stats.get("availableConcurrency"));
+        assertEquals(64L * 1024, stats.get("availableBytes"));
+        assertEquals(0, stats.get("activeClients"));
+    }
+
+    @Test
+    void rejectsUploadWithoutContentLength() throws Exception {
+        AdmissionFilter filter = new AdmissionFilter(properties);
+        MockHttpServletRequest request = upload("10.0.0.1", 0);
+        request.setContent(null);
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        assertEquals(411, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void rejectsUploadLargerThanGlobalBudget() throws Exception {
+        AdmissionFilter filter = new AdmissionFilter(properties);
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(upload("10.0.0.1", 64 * 1024 + 1), response, chain);
+        assertEquals(413, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void chargesContentLengthTimesHeapMultiplier() throws Exception {
+        AdmissionFilter filter = new AdmissionFilter(properties);
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(upload("10.0.0.1", 16 * 1024 + 1), response, chain);
+        assertEquals(413, response.getStatus());
+        assertNull(chain.getRequest());
+
+        properties.setHeapMultiplier(1);
+        filter = new AdmissionFilter(properties);
+        chain = new MockFilterChain();
+        filter.doFilter(upload("10.0.0.1", 64 * 1024), new MockHttpServletResponse(), chain);
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void defaultsBudgetToHalfOfMaxHeap() {
+        properties.setMaxInflightBytes(null);
+        AdmissionFilter filter = new AdmissionFilter(properties);
+        assertEquals(Runtime.getRuntime().maxMemory() / 2, filter.stats().get("maxInflightBytes"));
+    }
+
+    @Test
+    void admitsBodylessRequestWithoutContentLength() throws Exception {
+        AdmissionFilter filter = new AdmissionFilter(properties);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/proxy/download"), new MockHttpServletResponse(), chain);
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void perClientLimitReturns429() throws Exception {
+        AdmissionFilter filter = new AdmissionFilter(properties);
+        MockHttpServletResponse nested = whileInFlight(filter, upload("10.0.0.1", 1024), upload("10.0.0.1", 1024));
+        assertEquals(429, nested.getStatus());
+        assertEquals("5", nested.getHeader("Retry-After"));
+    }
+
+    @Test
+    void clientIdHeaderIsIgnoredByDefault() throws Exception {
+        AdmissionFilter filter = new AdmissionFilter(properties);
+        MockHttpServletRequest first = upload("10.0.0.1", 1024);
+        first.addHeader("X-Client-Id", "a");
+        MockHttpServletRequest second = upload("10.0.0.1", 1024);
+        second.addHeader("X-Client-Id", "b");
+        assertEquals(429, whileInFlight(filter, first, second).getStatus());
+    }
+
+    @Test
+    void clientIdHeaderIsUsedWhenConfigured() throws Exception {
+        properties.setClientIdHeader("X-Client-Id");
+        AdmissionFilter filter = new AdmissionFilter(properties);
+        MockHttpServletRequest first = upload("10.0.0.1", 1024);
+        first.addHeader("X-Client-Id", "a");
+        MockHttpServletRequest second = upload("10.0.0.1", 1024);
+        second.addHeader("X-Client-Id", "b");
+        assertEquals(200, whileInFlight(filter, first, second).getStatus());
+    }
+
+    @Test
+    void globalBudgetTimesOutWith503() throws Exception {
+        properties.setMaxConcurrent(1);
+        AdmissionFilter filter = new AdmissionFilter(properties);
+        MockHttpServletResponse nested = whileInFlight(filter, upload("10.0.0.1", 1024), upload("10.0.0.2", 1024));
+        assertEquals(503, nested.getStatus());
+        assertEquals(1L, filter.stats().get("rejectedTimeout"));
+    }
+
+    /**
+     * 在first处理过程中提交second，返回second的响应
+     */
+    private static MockHttpServletResponse whileInFlight(AdmissionFilter filter, MockHttpServletRequest first,
+                                                         MockHttpServletRequest second) throws Exception {
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> filter.doFilter(second, nested, new MockFilterChain());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(first, response, chain);
+        assertEquals(200, response.getStatus());
+        return nested;
+    }
+
+    private static MockHttpServletRequest upload(String remoteAddr, int size) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/proxy/upload");
+        request.setContentType("multipart/form-data; boundary=test");
+        request.setRemoteAddr(remoteAddr);
+        request.setContent(new byte[size]);
+        return request;
+    }
+}
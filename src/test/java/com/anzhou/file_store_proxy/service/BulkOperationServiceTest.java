@@ -0,0 +1,157 @@
+package com.anzhou.file_store_proxy.service;
+
+import com.anzhou.file_store_proxy.config.BulkProperties;
+import com.anzhou.file_store_proxy.config.HdfsOperations;
+import com.anzhou.file_store_proxy.config.HdfsRouter;
+import com.anzhou.file_store_proxy.model.BulkJob;
+import com.anzhou.file_store_proxy.model.BulkRequest;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * 以本地文件系统代替HDFS，验证递归复制、断点续跑、限流及本地目录上传
+ */
+class BulkOperationServiceTest {
+
+    @TempDir
+    Path dir;
+    private Path hdfsRoot;
+    private Path localRoot;
+    private BulkProperties properties;
+    private HdfsRouter router;
+    private BulkOperationService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        hdfsRoot = Files.createDirectories(dir.resolve("hdfs"));
+        localRoot = Files.createDirectories(dir.resolve("local"));
+        properties = new BulkProperties();
+        properties.setLocalRoot(localRoot.toString());
+        properties.setMaxOpsPerSecond(0);
+        String uri = "file://" + hdfsRoot.toAbsolutePath();
+        router = new HdfsRouter(Collections.singletonMap("local", new HdfsOperations(new Configuration(), uri)),
+                Collections.singletonMap("local", 1), Collections.emptyList(), 30000);
+        UploadPathResolver resolver = new UploadPathResolver();
+        ReflectionTestUtils.setField(resolver, "hdfsPath", "/test");
+        service = new BulkOperationService();
+        ReflectionTestUtils.setField(service, "properties", properties);
+        ReflectionTestUtils.setField(service, "hdfsRouter", router);
+        ReflectionTestUtils.setField(service, "uploadPathResolver", resolver);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+        router.close();
+    }
+
+    @Test
+    void copiesDirectoriesRecursively() throws Exception {
+        write("test/src/a.txt");
+        write("test/src/sub/b.txt");
+        BulkJob job = await(service.copy(copyRequest("src", "dst")));
+        assertEquals(1, job.getSucceeded());
+        assertTrue(Files.isRegularFile(hdfsRoot.resolve("test/dst/a.txt")));
+        assertTrue(Files.isRegularFile(hdfsRoot.resolve("test/dst/sub/b.txt")));
+
+        // 目标为已存在的目录时复制到其下
+        job = await(service.copy(copyRequest("src", "dst")));
+        assertEquals(1, job.getSucceeded());
+        assertTrue(Files.isRegularFile(hdfsRoot.resolve("test/dst/src/sub/b.txt")));
+    }
+
+    @Test
+    void resumesFromManifest() throws Exception {
+        write("test/a.txt");
+        write("test/b.txt");
+        BulkRequest request = new BulkRequest();
+        request.setPaths(Arrays.asList("a.txt", "b.txt"));
+        request.setManifest("resume.manifest");
+        BulkJob job = await(service.delete(request));
+        assertEquals(2, job.getSucceeded());
+        assertFalse(Files.exists(hdfsRoot.resolve("test/a.txt")));
+
+        // 清单中已完成的条目跳过，不会因文件已删除而失败
+        job = await(service.delete(request));
+        assertEquals(2, job.getSkipped());
+        assertEquals(0, job.getFailed());
+    }
+
+    @Test
+    void throttlesOperations() throws Exception {
+        properties.setMaxOpsPerSecond(20);
+        BulkRequest request = new BulkRequest();
+        for (int i = 0; i < 5; i++) {
+            write("test/t" + i + ".txt");
+            request.getPaths().add("t" + i + ".txt");
+        }
+        BulkJob job = await(service.delete(request));
+        assertEquals(5, job.getSucceeded());
+        // 5次调用、每秒20次，后4次各需等待50ms
+        assertTrue(job.getFinishedAt() - job.getStartedAt() >= 150, "耗时" + (job.getFinishedAt() - job.getStartedAt()));
+    }
+
+    @Test
+    void uploadDirectorySkipsSymlinks() throws Exception {
+        Path in = Files.createDirectories(localRoot.resolve("in"));
+        Files.write(in.resolve("a.txt"), "a".getBytes(StandardCharsets.UTF_8));
+        Path outside = Files.write(dir.resolve("secret.txt"), "secret".getBytes(StandardCharsets.UTF_8));
+        Files.createSymbolicLink(in.resolve("link.txt"), outside);
+        BulkRequest request = new BulkRequest();
+        request.setSource("in");
+        request.setTarget("up");
+        BulkJob job = await(service.uploadDirectory(request));
+        assertEquals(1, job.getTotal());
+        assertEquals(1, job.getSucceeded());
+        assertTrue(Files.isRegularFile(hdfsRoot.resolve("test/up/a.txt")));
+        assertFalse(Files.exists(hdfsRoot.resolve("test/up/link.txt")));
+    }
+
+    private void write(String path) throws IOException {
+        Path file = hdfsRoot.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, path.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static BulkRequest copyRequest(String source, String target) {
+        BulkRequest.Item item = new BulkRequest.Item();
+        item.setSource(source);
+        item.setTarget(target);
+        BulkRequest request = new BulkRequest();
+        request.setItems(Collections.singletonList(item));
+        return request;
+    }
+
+    private BulkJob await(BulkJob submitted) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline) {
+            BulkJob job = service.getJob(submitted.getJobId());
+            if ("completed".equals(job.getState())) {
+                return job;
+            }
+            if ("failed".equals(job.getState())) {
+                fail("批量任务失败:" + job.getError());
+            }
+            Thread.sleep(20);
+        }
+        fail("批量任务未在10秒内结束");
+        return null;
+    }
+}
@@ -0,0 +1,124 @@
+package com.anzhou.file_store_proxy.service;
+
+import com.alibaba.fastjson.JSON;
+import com.anzhou.file_store_proxy.config.KeyStoreProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class KeyManagerTest {
+
+    @TempDir
+    Path dir;
+    private Path store;
+
+    @BeforeEach
+    void setUp() {
+        store = dir.resolve("rsa-keys.json");
+    }
+
+    @Test
+    void generatesKeyOnEmptyStoreAndSharesIt() throws IOException {
+        KeyManager first = refreshed();
+        KeyManager.KeyEntry key = first.current();
+        assertNotNull(key);
+        assertEquals(key.getKeyId(), stored().get(0).getKeyId());
+
+        // 其他实例加载同一个密钥库，不再生成新密钥
+        KeyManager second = refreshed();
+        assertEquals(key.getKeyId(), second.current().getKeyId());
+        assertEquals(1, stored().size());
+    }
+
+    @Test
+    void storeIsOwnerReadableOnly() throws IOException {
+        assumeTrue(store.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        refreshed();
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(store)));
+    }
+
+    @Test
+    void rotatesOldKeyAndKeepsItDuringOverlap() throws IOException {
+        KeyManager.KeyEntry old = entry("old", TimeUnit.DAYS.toMillis(8));
+        write(old);
+        KeyManager manager = refreshed();
+        assertNotEquals("old", manager.current().getKeyId());
+        assertNotNull(manager.get("old"));
+        assertEquals(2, stored().size());
+    }
+
+    @Test
+    void expiresSupersededKeyAfterOverlap() throws IOException {
+        write(entry("old", TimeUnit.DAYS.toMillis(10)), entry("newer", TimeUnit.DAYS.toMillis(2)));
+        KeyManager manager = refreshed();
+        assertEquals("newer", manager.current().getKeyId());
+        assertNull(manager.get("old"));
+        assertNotNull(manager.get("newer"));
+        assertNull(manager.get("unknown"));
+    }
+
+    @Test
+    void unsavedKeyIsNeverUsed() throws IOException {
+        // 临时文件位置被目录占用，写入密钥库失败
+        Path tmp = dir.resolve("rsa-keys.json.tmp");
+        Files.createDirectories(tmp.resolve("blocker"));
+        KeyManager manager = refreshed();
+        assertNull(ReflectionTestUtils.getField(manager, "active"));
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(manager, "keys")).isEmpty());
+
+        Files.delete(tmp.resolve("blocker"));
+        Files.delete(tmp);
+        ReflectionTestUtils.invokeMethod(manager, "refresh");
+        assertEquals(stored().get(0).getKeyId(), manager.current().getKeyId());
+    }
+
+    /**
+     * 不启动后台线程，直接同步执行一次刷新
+     */
+    private KeyManager refreshed() {
+        KeyStoreProperties properties = new KeyStoreProperties();
+        properties.setPath(store.toString());
+        properties.setKeySize(1024);
+        properties.setRotationHours(168);
+        properties.setOverlapHours(24);
+        KeyManager manager = new KeyManager();
+        ReflectionTestUtils.setField(manager, "properties", properties);
+        ReflectionTestUtils.invokeMethod(manager, "refresh");
+        return manager;
+    }
+
+    private List<KeyManager.KeyEntry> stored() throws IOException {
+        return JSON.parseArray(new String(Files.readAllBytes(store), StandardCharsets.UTF_8), KeyManager.KeyEntry.class);
+    }
+
+    private void write(KeyManager.KeyEntry... entries) throws IOException {
+        Files.write(store, JSON.toJSONString(Arrays.asList(entries)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static KeyManager.KeyEntry entry(String keyId, long ageMs) {
+        KeyManager.KeyEntry entry = new KeyManager.KeyEntry();
+        entry.setKeyId(keyId);
+        entry.setPublicKey("public-" + keyId);
+        entry.setPrivateKey("private-" + keyId);
+        entry.setCreatedAt(System.currentTimeMillis() - ageMs);
+        return entry;
+    }
+}
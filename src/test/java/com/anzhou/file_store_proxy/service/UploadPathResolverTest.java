@@ -0,0 +1,43 @@
+package com.anzhou.file_store_proxy.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadPathResolverTest {
+
+    @Test
+    void resolvesFilesUnderHdfsPath() {
+        UploadPathResolver resolver = resolver("/test");
+        assertEquals("/test/2109/20260101/a.txt", resolver.resolveFile("2109/20260101/a.txt"));
+        // 开头的斜杠仍按相对hdfsPath处理
+        assertEquals("/test/a.txt", resolver.resolveFile("//a.txt"));
+        assertEquals("/test/a.txt", resolver("/test/").resolveFile("/a.txt"));
+    }
+
+    @Test
+    void rejectsPathsOutsideHdfsPath() {
+        UploadPathResolver resolver = resolver("/test");
+        assertThrows(IllegalArgumentException.class, () -> resolver.resolveFile("../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> resolver.resolveFile("2109/../../x"));
+        assertThrows(IllegalArgumentException.class, () -> resolver.resolveFile("./a.txt"));
+        assertThrows(IllegalArgumentException.class, () -> resolver.resolveFile(""));
+        assertThrows(IllegalArgumentException.class, () -> resolver.resolveFile("/"));
+    }
+
+    @Test
+    void partitionAndWarmupDirsAreUnderHdfsPath() {
+        UploadPathResolver resolver = resolver("/test");
+        assertTrue(resolver.partitionDir().matches("/test/2109/\\d{8}"));
+        assertEquals("/test/.warmup", resolver.warmupDir());
+    }
+
+    private static UploadPathResolver resolver(String hdfsPath) {
+        UploadPathResolver resolver = new UploadPathResolver();
+        ReflectionTestUtils.setField(resolver, "hdfsPath", hdfsPath);
+        return resolver;
+    }
+}
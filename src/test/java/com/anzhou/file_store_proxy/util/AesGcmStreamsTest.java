@@ -0,0 +1,196 @@
+package com.anzhou.file_store_proxy.util;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 按AesGcmStreams文档中的格式实现客户端解密，验证往返及截断、乱序检测
+ */
+class AesGcmStreamsTest {
+
+    private static final int CHUNK = 16;
+    private static final int TAG_BYTES = 16;
+
+    private static KeyPair keyPair;
+
+    @BeforeAll
+    static void generateKey() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+    }
+
+    @Test
+    void emptyInputIsSingleLastFrame() throws Exception {
+        byte[] stream = encrypt(new byte[0]);
+        assertEquals(1, split(stream).frames.size());
+        assertArrayEquals(new byte[0], decrypt(stream));
+    }
+
+    @Test
+    void subChunkInput() throws Exception {
+        byte[] plain = random(CHUNK - 6);
+        byte[] stream = encrypt(plain);
+        assertEquals(1, split(stream).frames.size());
+        assertArrayEquals(plain, decrypt(stream));
+    }
+
+    @Test
+    void exactChunkInputEndsWithEmptyLastFrame() throws Exception {
+        byte[] plain = random(CHUNK);
+        byte[] stream = encrypt(plain);
+        assertEquals(2, split(stream).frames.size());
+        assertArrayEquals(plain, decrypt(stream));
+    }
+
+    @Test
+    void multiChunkInput() throws Exception {
+        byte[] plain = random(CHUNK * 3 + 5);
+        byte[] stream = encrypt(plain);
+        assertEquals(4, split(stream).frames.size());
+        assertArrayEquals(plain, decrypt(stream));
+    }
+
+    @Test
+    void rejectsTruncatedStream() throws Exception {
+        Frames frames = split(encrypt(random(CHUNK * 2)));
+        // 去掉最后的空帧后，剩下的都是满帧，没有last帧
+        frames.frames.remove(frames.frames.size() - 1);
+        assertThrows(EOFException.class, () -> decrypt(frames.join()));
+    }
+
+    @Test
+    void rejectsReorderedFrames() throws Exception {
+        Frames frames = split(encrypt(random(CHUNK * 3 + 5)));
+        Collections.swap(frames.frames, 0, 1);
+        assertThrows(AEADBadTagException.class, () -> decrypt(frames.join()));
+    }
+
+    @Test
+    void rejectsNonPositiveChunkSize() {
+        assertThrows(IllegalArgumentException.class, () -> AesGcmStreams.encrypt(new ByteArrayInputStream(new byte[1]),
+                new ByteArrayOutputStream(), (RSAPublicKey) keyPair.getPublic(), 0));
+    }
+
+    @Test
+    void rejectsShortPublicKey() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(1024);
+        RSAPublicKey shortKey = (RSAPublicKey) generator.generateKeyPair().getPublic();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThrows(IllegalArgumentException.class, () -> AesGcmStreams.encrypt(new ByteArrayInputStream(new byte[1]),
+                out, shortKey, CHUNK));
+        assertEquals(0, out.size());
+    }
+
+    private static byte[] encrypt(byte[] plain) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long total = AesGcmStreams.encrypt(new ByteArrayInputStream(plain), out, (RSAPublicKey) keyPair.getPublic(), CHUNK);
+        assertEquals(plain.length, total);
+        return out.toByteArray();
+    }
+
+    /**
+     * 客户端解密：明文不足一帧的帧为last帧，未收到last帧即结束视为截断
+     */
+    private static byte[] decrypt(byte[] stream) throws Exception {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(stream));
+        byte[] magic = new byte[AesGcmStreams.MAGIC.length];
+        in.readFully(magic);
+        assertArrayEquals(AesGcmStreams.MAGIC, magic);
+        assertEquals(AesGcmStreams.VERSION, in.readByte());
+        int chunkSize = in.readInt();
+        byte[] wrappedKey = new byte[in.readInt()];
+        in.readFully(wrappedKey);
+        byte[] noncePrefix = new byte[4];
+        in.readFully(noncePrefix);
+        Key key = unwrap(wrappedKey, keyPair.getPrivate());
+
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (long counter = 0; ; counter++) {
+            byte[] frame = new byte[in.readInt()];
+            in.readFully(frame);
+            boolean last = frame.length - TAG_BYTES < chunkSize;
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BYTES * 8,
+                    ByteBuffer.allocate(12).put(noncePrefix).putLong(counter).array()));
+            cipher.updateAAD(ByteBuffer.allocate(9).putLong(counter).put((byte) (last ? 1 : 0)).array());
+            out.write(cipher.doFinal(frame));
+            if (last) {
+                assertEquals(-1, in.read());
+                return out.toByteArray();
+            }
+        }
+    }
+
+    private static Key unwrap(byte[] wrappedKey, PrivateKey privateKey) throws Exception {
+        Cipher unwrapper = Cipher.getInstance(AesGcmStreams.KEY_WRAP_ALGORITHM);
+        unwrapper.init(Cipher.UNWRAP_MODE, privateKey, AesGcmStreams.OAEP_PARAMETERS);
+        return unwrapper.unwrap(wrappedKey, "AES", Cipher.SECRET_KEY);
+    }
+
+    private static Frames split(byte[] stream) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(stream));
+        int headerLength = AesGcmStreams.MAGIC.length + 1 + 4;
+        in.skipBytes(headerLength);
+        int wrappedKeyLength = in.readInt();
+        headerLength += 4 + wrappedKeyLength + 4;
+        in.skipBytes(wrappedKeyLength + 4);
+        Frames frames = new Frames();
+        frames.header = new byte[headerLength];
+        System.arraycopy(stream, 0, frames.header, 0, headerLength);
+        while (in.available() > 0) {
+            int length = in.readInt();
+            byte[] frame = ByteBuffer.allocate(4 + length).putInt(length).array();
+            in.readFully(frame, 4, length);
+            frames.frames.add(frame);
+        }
+        return frames;
+    }
+
+    private static byte[] random(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * 头部及各帧（含长度前缀）
+     */
+    private static class Frames {
+        private byte[] header;
+        private final List<byte[]> frames = new ArrayList<>();
+
+        private byte[] join() throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write(header);
+            for (byte[] frame : frames) {
+                out.write(frame);
+            }
+            return out.toByteArray();
+        }
+    }
+}